@@ -0,0 +1,7 @@
+package me.zcraft.tc.bench.synthetic;
+
+public enum SyntheticMode {
+    FAST,
+    BALANCED,
+    QUALITY
+}
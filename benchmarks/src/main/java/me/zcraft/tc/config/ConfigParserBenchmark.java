@@ -0,0 +1,84 @@
+package me.zcraft.tc.config;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+/**
+ * Reading and tokenizing a config file, and converting its values into typed slots.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ConfigParserBenchmark {
+    private static final int KEYS_PER_SECTION = 100;
+
+    @Param({"10", "1000", "100000"})
+    public int keys;
+
+    private Path file;
+
+    @Setup
+    public void writeFile() throws IOException {
+        StringBuilder sb = new StringBuilder("# Parser benchmark\nconfig_version = 1\n");
+        for (int i = 0; i < keys; i++) {
+            if (i % KEYS_PER_SECTION == 0) {
+                sb.append("\n# Section ").append(i / KEYS_PER_SECTION).append('\n');
+                sb.append("[section").append(i / KEYS_PER_SECTION).append("]\n");
+            }
+            switch (i % 4) {
+                case 0 -> sb.append("count").append(i).append(" = ").append(i).append('\n');
+                case 1 -> sb.append("enabled").append(i).append(" = ").append(i % 3 == 0).append('\n');
+                case 2 -> sb.append("ratio").append(i).append(" = ").append(i / 7.0).append('\n');
+                default -> sb.append("name").append(i).append(" = \"value ").append(i).append("\"\n");
+            }
+        }
+        file = Files.createTempFile("tritium-parser-" + keys, ".toml");
+        Files.writeString(file, sb);
+    }
+
+    @TearDown
+    public void deleteFile() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public int load() {
+        ConfigParser parser = new ConfigParser(file, false);
+        parser.load();
+        return parser.configValues.size();
+    }
+
+    /**
+     * Load with a typed slot registered for every key, as {@link TritiumConfig} does.
+     */
+    @Benchmark
+    public void loadWithSlots(Blackhole blackhole) {
+        ConfigParser parser = new ConfigParser(file, false);
+        IntSupplier[] slots = new IntSupplier[(keys + 3) / 4];
+        for (int i = 0; i < keys; i += 4) {
+            slots[i / 4] = parser.getIntSlot("section" + i / KEYS_PER_SECTION + ".count" + i, 0);
+        }
+        parser.load();
+        blackhole.consume(slots[slots.length - 1].getAsInt());
+    }
+}
@@ -0,0 +1,88 @@
+package me.zcraft.tc.config;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.invoke.MethodHandle;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-threaded cost of reading one int setting: a plain field against the config engine's read paths.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ConfigReadBenchmark {
+    private static final String PATH = "level1.i0";
+    // One config per forked JVM, shared by all benchmark threads
+    private static final TritiumConfig CONFIG = SyntheticConfigs.register("bench_read", SyntheticConfigs.shape("d1_w10"));
+    private static final ConfigHandle<Integer> STATIC_HANDLE = CONFIG.getHandle(PATH);
+    private static final MethodHandle INVOKER = CONFIG.getHandle(PATH).invoker();
+
+    public int plainField = 0;
+
+    private ConfigValue<?> value;
+    private IntConfigValue intValue;
+    private ConfigHandle<Integer> handle;
+
+    @Setup
+    public void setUp() {
+        value = CONFIG.getValue(PATH);
+        intValue = CONFIG.getIntValue(PATH);
+        handle = CONFIG.getHandle(PATH);
+    }
+
+    @Benchmark
+    public int plainField() {
+        return plainField;
+    }
+
+    @Benchmark
+    public Object configValueGet() {
+        return value.get();
+    }
+
+    @Benchmark
+    public int intConfigValue() {
+        return intValue.getAsInt();
+    }
+
+    @Benchmark
+    public int handle() {
+        return handle.getAsInt();
+    }
+
+    /**
+     * A handle kept in a static final field. {@code getAsInt()} still goes through the handle's instance field,
+     * which the JIT doesn't trust as constant, so nothing is folded.
+     */
+    @Benchmark
+    public int staticFinalHandle() {
+        return STATIC_HANDLE.getAsInt();
+    }
+
+    /**
+     * The pattern {@link ConfigHandle} recommends: its invoker in a static final field, where the JIT folds the
+     * current value into a constant.
+     */
+    @Benchmark
+    public int staticFinalInvoker() throws Throwable {
+        return (int) INVOKER.invokeExact();
+    }
+
+    @Benchmark
+    public Object snapshotLookup() {
+        return CONFIG.snapshot().get(PATH);
+    }
+}
@@ -0,0 +1,72 @@
+package me.zcraft.tc.config;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link ConfigValue} reads from many threads, with the value stable and while another thread keeps
+ * publishing new generations, as a reload storm would.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ConfigValueContentionBenchmark {
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicInteger source = new AtomicInteger();
+
+    private ConfigValue<Integer> value;
+    private IntConfigValue intValue;
+
+    @Setup
+    public void setUp() {
+        value = new ConfigValue<>(source::get, generation::get);
+        intValue = new IntConfigValue(source::get, generation::get);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Integer stableGet() {
+        return value.get();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public int stableGetAsInt() {
+        return intValue.getAsInt();
+    }
+
+    @Benchmark
+    @Group("reloading")
+    @GroupThreads(7)
+    public int reader() {
+        return intValue.getAsInt();
+    }
+
+    @Benchmark
+    @Group("reloading")
+    @GroupThreads(1)
+    public void reloader() {
+        source.incrementAndGet();
+        generation.incrementAndGet();
+        Blackhole.consumeCPU(1000);
+    }
+}
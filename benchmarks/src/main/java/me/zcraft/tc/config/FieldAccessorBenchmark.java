@@ -0,0 +1,101 @@
+package me.zcraft.tc.config;
+
+import me.zcraft.tc.config.access.FieldAccessorFactory;
+import me.zcraft.tc.config.access.TypedAccessor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Field;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading and writing a config field through {@link FieldAccessorFactory} against reflection and a method
+ * handle held in a non-constant field, the accessors used before.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class FieldAccessorBenchmark {
+    public static class Target {
+        public int count = 5;
+        public String name = "hello";
+    }
+
+    private final Target target = new Target();
+    private int next;
+
+    private Field intField;
+    private Field stringField;
+    private MethodHandle intGetter;
+    private MethodHandle intSetter;
+    private TypedAccessor intAccessor;
+    private TypedAccessor stringAccessor;
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        intField = Target.class.getField("count");
+        stringField = Target.class.getField("name");
+        intGetter = MethodHandles.publicLookup().unreflectGetter(intField);
+        intSetter = MethodHandles.publicLookup().unreflectSetter(intField);
+        intAccessor = FieldAccessorFactory.create(intField);
+        stringAccessor = FieldAccessorFactory.create(stringField);
+    }
+
+    @Benchmark
+    public Object reflectionGetInt() throws IllegalAccessException {
+        return intField.get(target);
+    }
+
+    @Benchmark
+    public Object methodHandleGetInt() throws Throwable {
+        return intGetter.invoke(target);
+    }
+
+    @Benchmark
+    public Object accessorGetInt() {
+        return intAccessor.get(target);
+    }
+
+    @Benchmark
+    public int accessorGetIntPrimitive() {
+        return intAccessor.getInt(target);
+    }
+
+    @Benchmark
+    public void reflectionSetInt() throws IllegalAccessException {
+        intField.set(target, next++);
+    }
+
+    @Benchmark
+    public void methodHandleSetInt() throws Throwable {
+        intSetter.invoke(target, next++);
+    }
+
+    @Benchmark
+    public void accessorSetIntPrimitive() {
+        intAccessor.setInt(target, next++);
+    }
+
+    @Benchmark
+    public Object reflectionGetString() throws IllegalAccessException {
+        return stringField.get(target);
+    }
+
+    @Benchmark
+    public Object accessorGetString() {
+        return stringAccessor.get(target);
+    }
+}
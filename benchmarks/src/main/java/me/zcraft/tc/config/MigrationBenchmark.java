@@ -0,0 +1,68 @@
+package me.zcraft.tc.config;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Migrating a version 1 file with 1000 keys through chains of declared {@code migrateFromV<n>} rename steps,
+ * including the backup and writing the migrated file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class MigrationBenchmark {
+    @Param({"1", "5", "20"})
+    public int steps;
+
+    private Class<?> configClass;
+    private Path file;
+    private String version1;
+    private ConfigParser parser;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        configClass = SyntheticConfigs.migration(steps);
+        StringBuilder sb = new StringBuilder("# Migration benchmark\n\n[general]\ncount = 1\n");
+        for (int n = 0; n < 1000; n++) {
+            sb.append("v1_").append(n).append(" = ").append(n).append('\n');
+        }
+        version1 = sb.toString();
+        file = Files.createTempFile("tritium-migration-" + steps, ".toml");
+    }
+
+    @Setup(Level.Invocation)
+    public void resetFile() throws IOException {
+        Files.writeString(file, version1);
+        parser = new ConfigParser(file);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFile() throws IOException {
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(file.resolveSibling(file.getFileName() + ".v1.bak"));
+    }
+
+    @Benchmark
+    public boolean migrate() {
+        return ConfigMigration.migrateConfig(file, parser, configClass);
+    }
+}
@@ -0,0 +1,57 @@
+package me.zcraft.tc.config;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishing one changed value: reading the values, the copy-on-write rebuild of the config object along the
+ * changed path, validation and the snapshot swap. Also covers serializing the result to TOML.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class RebuildBenchmark {
+    @Param({"d1_w10", "d4_w25", "d8_w125"})
+    public String shape;
+
+    private TritiumConfig config;
+    private String path;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        config = SyntheticConfigs.register("bench_rebuild_" + shape, SyntheticConfigs.shape(shape));
+        path = SyntheticConfigs.deepestIntPath(shape);
+    }
+
+    @TearDown
+    public void tearDown() {
+        config.stop();
+    }
+
+    @Benchmark
+    public long setDeepestValue() {
+        config.setValue(path, ++next % 1000);
+        return config.getGeneration();
+    }
+
+    @Benchmark
+    public String generateConfigFile() {
+        return config.generateConfigFile(config.snapshot());
+    }
+}
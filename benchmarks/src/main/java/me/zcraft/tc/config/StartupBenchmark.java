@@ -0,0 +1,72 @@
+package me.zcraft.tc.config;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registering 300 configs whose files already exist, the startup of a large modpack after the first launch.
+ * Compares loading from the compiled {@code .tcbin} cache with parsing the TOML files.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class StartupBenchmark {
+    private static final int CONFIGS = 300;
+
+    private final Class<?> configClass = SyntheticConfigs.shape("d4_w25");
+    private final List<TritiumConfig> registered = new ArrayList<>(CONFIGS);
+
+    @Setup(Level.Trial)
+    public void createFiles() throws InterruptedException {
+        for (int i = 0; i < CONFIGS; i++) {
+            SyntheticConfigs.register(modId(i), configClass).stop();
+        }
+        // Lets the background writes of the compiled cache finish
+        Thread.sleep(1000);
+    }
+
+    @TearDown(Level.Invocation)
+    public void stopConfigs() {
+        registered.forEach(TritiumConfig::stop);
+        registered.clear();
+    }
+
+    @Benchmark
+    @Fork(value = 2, jvmArgsAppend = "-Dtritium.compiledCache=true")
+    public int compiledCache() {
+        return registerAll();
+    }
+
+    @Benchmark
+    @Fork(value = 2, jvmArgsAppend = "-Dtritium.compiledCache=false")
+    public int toml() {
+        return registerAll();
+    }
+
+    private int registerAll() {
+        for (int i = 0; i < CONFIGS; i++) {
+            registered.add(new TritiumConfig(modId(i), configClass).register());
+        }
+        return registered.size();
+    }
+
+    private static String modId(int i) {
+        return "bench_startup_" + i;
+    }
+}
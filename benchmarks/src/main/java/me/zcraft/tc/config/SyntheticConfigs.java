@@ -0,0 +1,75 @@
+package me.zcraft.tc.config;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Access to the config classes generated by the {@code generateSyntheticConfigs} task.
+ */
+final class SyntheticConfigs {
+    private static final String PACKAGE = "me.zcraft.tc.bench.synthetic.";
+
+    private SyntheticConfigs() {
+    }
+
+    /**
+     * @param shape {@code "d<depth>_w<width>"}, one of the shapes in the benchmarks build script
+     */
+    static Class<?> shape(String shape) {
+        return load("Shape_" + shape);
+    }
+
+    static Class<?> migration(int steps) {
+        return load("Migration_c" + steps);
+    }
+
+    static int depth(String shape) {
+        return Integer.parseInt(shape.substring(1, shape.indexOf('_')));
+    }
+
+    /**
+     * Path of the first int value in the deepest section, e.g. {@code "level1.level2.i0"}.
+     */
+    static String deepestIntPath(String shape) {
+        StringBuilder path = new StringBuilder();
+        for (int level = 1; level <= depth(shape); level++) {
+            path.append("level").append(level).append('.');
+        }
+        return path.append("i0").toString();
+    }
+
+    /**
+     * Registers {@code configClass} as a fresh config under {@code modId}, starting from an empty directory.
+     */
+    static TritiumConfig register(String modId, Class<?> configClass) {
+        deleteConfigDirectory(modId);
+        return new TritiumConfig(modId, configClass).register();
+    }
+
+    static void deleteConfigDirectory(String modId) {
+        Path dir = Path.of("config", modId);
+        if (!Files.exists(dir)) return;
+
+        try (var paths = Files.walk(dir)) {
+            paths.sorted((a, b) -> b.getNameCount() - a.getNameCount()).forEach(path -> {
+                try {
+                    Files.delete(path);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Class<?> load(String simpleName) {
+        try {
+            return Class.forName(PACKAGE + simpleName);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalArgumentException("No synthetic config class " + simpleName, e);
+        }
+    }
+}
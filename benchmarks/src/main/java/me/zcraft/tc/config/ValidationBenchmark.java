@@ -0,0 +1,69 @@
+package me.zcraft.tc.config;
+
+import me.zcraft.tc.config.binder.ConfigBinder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Running the compiled {@link ValidationPlan} over a whole config and over the one path a single edit changes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ValidationBenchmark {
+    @Param({"d1_w10", "d4_w25", "d8_w125"})
+    public String shape;
+
+    private TritiumConfig config;
+    private ValidationPlan plan;
+    private ConfigSnapshot snapshot;
+    private List<String> changed;
+
+    @Setup
+    public void setUp() {
+        Class<?> configClass = SyntheticConfigs.shape(shape);
+        config = SyntheticConfigs.register("bench_validation_" + shape, configClass);
+        plan = ConfigBinder.forClass(configClass).getValidationPlan();
+        snapshot = config.snapshot();
+        changed = List.of(SyntheticConfigs.deepestIntPath(shape));
+    }
+
+    @TearDown
+    public void tearDown() {
+        config.stop();
+    }
+
+    @Benchmark
+    public void validateAll() {
+        plan.validate(snapshot.asMap(), snapshot.getRoot());
+    }
+
+    @Benchmark
+    public void validateChanged() {
+        plan.validate(changed, snapshot.asMap(), snapshot.getRoot());
+    }
+
+    /**
+     * Building the plan from the binder, done once per config at registration.
+     */
+    @Benchmark
+    public ValidationPlan compilePlan() {
+        return ConfigBinder.forClass(SyntheticConfigs.shape(shape)).getValidationPlan();
+    }
+}
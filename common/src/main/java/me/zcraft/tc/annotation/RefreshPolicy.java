@@ -0,0 +1,15 @@
+package me.zcraft.tc.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Additionally refreshes the cached value after the given interval (ms), not only after a reload.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface RefreshPolicy {
+    long value();
+}
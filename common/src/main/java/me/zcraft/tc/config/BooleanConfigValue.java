@@ -0,0 +1,33 @@
+package me.zcraft.tc.config;
+
+import java.util.function.BooleanSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * {@link ConfigValue} for boolean settings. {@link #getAsBoolean()} reads a cached primitive and never boxes.
+ */
+public class BooleanConfigValue extends ConfigValue<Boolean> implements BooleanSupplier {
+    private final BooleanSupplier source;
+    private boolean cached;
+
+    public BooleanConfigValue(BooleanSupplier source, LongSupplier generationSource) {
+        this(source, generationSource, 0);
+    }
+
+    public BooleanConfigValue(BooleanSupplier source, LongSupplier generationSource, long refreshIntervalMs) {
+        super(source::getAsBoolean, generationSource, refreshIntervalMs);
+        this.source = source;
+    }
+
+    @Override
+    public boolean getAsBoolean() {
+        ensureCurrent();
+        return cached;
+    }
+
+    @Override
+    protected void recompute() {
+        cached = source.getAsBoolean();
+        super.recompute();
+    }
+}
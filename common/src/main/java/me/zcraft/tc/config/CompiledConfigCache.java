@@ -0,0 +1,255 @@
+package me.zcraft.tc.config;
+
+import me.zcraft.tc.TritiumCommon;
+import me.zcraft.tc.config.binder.BoundValue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Binary copy ({@code .tcbin}) of the converted values of a config file, so an unchanged file doesn't have to be
+ * parsed and migrated again on the next start. A cache file is only used while the source file still has the
+ * modification time and size it was written for and the config schema hash matches.
+ * <p>
+ * Layout: magic, format version, source mtime, source size, source {@link ContentHash}, schema hash, entry count,
+ * then per entry the path, a type tag and the value. Strings are written as an int byte length and UTF-8 bytes,
+ * so they have no length limit. Values that can't be encoded are left out and fall back to their default, exactly
+ * like they do when read from the file.
+ */
+final class CompiledConfigCache {
+    private static final int MAGIC = 0x54434231; // "TCB1"
+    private static final int FORMAT_VERSION = 2;
+
+    private static final byte BOOLEAN = 1;
+    private static final byte INT = 2;
+    private static final byte LONG = 3;
+    private static final byte DOUBLE = 4;
+    private static final byte STRING = 5;
+    private static final byte ENUM = 6;
+    private static final byte LIST = 7;
+
+    private final Path cacheFile;
+    private final long schemaHash;
+
+    CompiledConfigCache(Path cacheFile, long schemaHash) {
+        this.cacheFile = cacheFile;
+        this.schemaHash = schemaHash;
+    }
+
+    /**
+     * Hash of everything that decides which values a file produces: the bound paths and types, their defaults,
+     * the validation rules and the config version.
+     */
+    static long schemaHash(Class<?> configClass, int configVersion, Map<String, BoundValue> values,
+                           Map<String, Object> defaults, ValidationPlan plan) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(configClass.getName()).append('@').append(configVersion).append('@').append(FORMAT_VERSION).append('\n');
+        for (Map.Entry<String, BoundValue> entry : new TreeMap<>(values).entrySet()) {
+            sb.append(entry.getKey()).append(':').append(entry.getValue().getType().getName())
+                    .append('=').append(defaults.get(entry.getKey())).append('\n');
+        }
+        return ContentHash.of(sb) * 31 + plan.fingerprint();
+    }
+
+    /**
+     * @return the cached values by path, or {@code null} if there is no usable cache for the source's current state
+     */
+    Entry read(Path source, Map<String, BoundValue> schema) {
+        byte[] bytes;
+        SourceStamp stamp;
+        try {
+            stamp = SourceStamp.read(source);
+            bytes = Files.readAllBytes(cacheFile);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            TritiumCommon.LOG.debug("Failed to read config cache {}", cacheFile, e);
+            return null;
+        }
+
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) return null;
+            if (in.readLong() != stamp.modified || in.readLong() != stamp.size) return null;
+            long contentHash = in.readLong();
+            if (in.readLong() != schemaHash) return null;
+
+            int count = in.readInt();
+            Map<String, Object> values = new HashMap<>(count * 2);
+            for (int i = 0; i < count; i++) {
+                String path = readString(in);
+                BoundValue bound = schema.get(path);
+                if (bound == null) return null;
+                values.put(path, readValue(in, bound.getType()));
+            }
+            return new Entry(contentHash, values);
+        } catch (IOException | IllegalArgumentException e) {
+            TritiumCommon.LOG.debug("Ignoring invalid config cache {}", cacheFile, e);
+            return null;
+        }
+    }
+
+    /**
+     * Encodes {@code values}; the bytes are written later with {@link #store(byte[])} so the caller can hand the
+     * I/O to a background thread.
+     */
+    byte[] encode(SourceStamp stamp, long contentHash, Map<String, Object> values) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(256 + values.size() * 32);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(stamp.modified);
+            out.writeLong(stamp.size);
+            out.writeLong(contentHash);
+            out.writeLong(schemaHash);
+
+            List<Map.Entry<String, Object>> encodable = new ArrayList<>(values.size());
+            for (Map.Entry<String, Object> entry : values.entrySet()) {
+                if (tagOf(entry.getValue()) != 0) {
+                    encodable.add(entry);
+                }
+            }
+            out.writeInt(encodable.size());
+            for (Map.Entry<String, Object> entry : encodable) {
+                writeString(out, entry.getKey());
+                writeValue(out, entry.getValue());
+            }
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    void store(byte[] encoded) {
+        try {
+            Files.createDirectories(cacheFile.getParent());
+            TritiumConfig.writeAtomically(cacheFile, encoded);
+        } catch (IOException e) {
+            TritiumCommon.LOG.warn("Failed to write config cache {}", cacheFile, e);
+        }
+    }
+
+    private static byte tagOf(Object value) {
+        if (value instanceof Boolean) return BOOLEAN;
+        if (value instanceof Integer) return INT;
+        if (value instanceof Long) return LONG;
+        if (value instanceof Double) return DOUBLE;
+        if (value instanceof String) return STRING;
+        if (value instanceof Enum) return ENUM;
+        if (value instanceof List) {
+            for (Object item : (List<?>) value) {
+                if (!(item instanceof String)) return 0;
+            }
+            return LIST;
+        }
+        return 0;
+    }
+
+    private static void writeValue(DataOutputStream out, Object value) throws IOException {
+        byte tag = tagOf(value);
+        out.writeByte(tag);
+        switch (tag) {
+            case BOOLEAN -> out.writeBoolean((Boolean) value);
+            case INT -> out.writeInt((Integer) value);
+            case LONG -> out.writeLong((Long) value);
+            case DOUBLE -> out.writeDouble((Double) value);
+            case STRING -> writeString(out, (String) value);
+            case ENUM -> writeString(out, ((Enum<?>) value).name());
+            case LIST -> {
+                List<?> list = (List<?>) value;
+                out.writeInt(list.size());
+                for (Object item : list) {
+                    writeString(out, (String) item);
+                }
+            }
+            default -> throw new IllegalArgumentException("Unsupported cache value: " + value);
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Object readValue(DataInputStream in, Class<?> type) throws IOException {
+        byte tag = in.readByte();
+        switch (tag) {
+            case BOOLEAN:
+                return in.readBoolean();
+            case INT:
+                return in.readInt();
+            case LONG:
+                return in.readLong();
+            case DOUBLE:
+                return in.readDouble();
+            case STRING:
+                return readString(in);
+            case ENUM:
+                return Enum.valueOf((Class<Enum>) type, readString(in));
+            case LIST:
+                int size = in.readInt();
+                List<String> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(readString(in));
+                }
+                return list;
+            default:
+                throw new IOException("Unknown cache value tag: " + tag);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        // The whole cache is in memory, so a length past its end can only come from a corrupt file
+        if (length < 0 || length > in.available()) {
+            throw new IOException("Invalid cache string length: " + length);
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static final class Entry {
+        final long contentHash;
+        final Map<String, Object> values;
+
+        private Entry(long contentHash, Map<String, Object> values) {
+            this.contentHash = contentHash;
+            this.values = values;
+        }
+    }
+
+    /**
+     * Modification time and size of the source file, read before it is parsed.
+     */
+    static final class SourceStamp {
+        private final long modified;
+        private final long size;
+
+        private SourceStamp(long modified, long size) {
+            this.modified = modified;
+            this.size = size;
+        }
+
+        static SourceStamp read(Path source) throws IOException {
+            BasicFileAttributes attributes = Files.readAttributes(source, BasicFileAttributes.class);
+            return new SourceStamp(attributes.lastModifiedTime().toMillis(), attributes.size());
+        }
+    }
+}
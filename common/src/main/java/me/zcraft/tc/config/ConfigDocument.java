@@ -0,0 +1,374 @@
+package me.zcraft.tc.config;
+
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The text of a config file together with where every value is written in it. A {@link Patch} replaces single
+ * values and adds missing keys in one pass over the text, so comments, ordering and formatting the user chose
+ * survive a save. Instances are immutable; {@link Patch#apply()} returns a new document.
+ */
+public final class ConfigDocument {
+    private final String text;
+    private final long contentHash;
+    // key -> {start, end} of the value as written
+    private final Map<String, int[]> spans;
+    // section name -> where new keys of the section are inserted, "" for keys before the first header
+    private final Map<String, Integer> sectionEnds;
+    private final boolean escaped;
+
+    private ConfigDocument(String text, long contentHash, Map<String, int[]> spans, Map<String, Integer> sectionEnds,
+                           boolean escaped) {
+        this.text = text;
+        this.contentHash = contentHash;
+        this.spans = spans;
+        this.sectionEnds = sectionEnds;
+        this.escaped = escaped;
+    }
+
+    /**
+     * Tokenizes {@code content} once, passing every entry on to {@code entries} as well.
+     */
+    static ConfigDocument parse(CharBuffer content, long contentHash, ConfigTokenizer tokenizer, ConfigTokenizer.Handler entries) {
+        String text = content.toString();
+        Builder builder = new Builder(text, entries);
+        tokenizer.tokenize(content, builder);
+        return builder.build(contentHash, tokenizer.isEscaped());
+    }
+
+    static ConfigDocument parse(String text) {
+        return parse(CharBuffer.wrap(text), ContentHash.of(text), new ConfigTokenizer(), (key, value) -> {
+        });
+    }
+
+    public static ConfigDocument read(Path path) throws IOException {
+        CharBuffer content = ConfigTokenizer.read(path);
+        return parse(content, ContentHash.of(content), new ConfigTokenizer(), (key, value) -> {
+        });
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * {@link ContentHash} of {@link #getText()}.
+     */
+    public long getContentHash() {
+        return contentHash;
+    }
+
+    public boolean contains(String key) {
+        return spans.containsKey(key);
+    }
+
+    /**
+     * Whether the document has the {@link ConfigTokenizer#FORMAT_KEY} marker, so its basic strings use escapes.
+     */
+    public boolean isEscaped() {
+        return escaped;
+    }
+
+    /**
+     * Rewrites a document from before strings were escaped so its values read back the same with escaping: every
+     * quoted string and array is written again with {@link ConfigTokenizer#appendQuoted} and the
+     * {@link ConfigTokenizer#FORMAT_KEY} marker is added to the root keys. Comments and layout are kept.
+     *
+     * @return this document itself if it is already escaped
+     */
+    public ConfigDocument escapeStrings() {
+        if (escaped) {
+            return this;
+        }
+
+        Map<String, String> values = new HashMap<>();
+        new ConfigTokenizer().tokenize(CharBuffer.wrap(text), values::put);
+        Patch patch = patch();
+        for (Map.Entry<String, int[]> entry : spans.entrySet()) {
+            String value = values.get(entry.getKey());
+            char first = text.charAt(entry.getValue()[0]);
+            if (value == null || first != '"' && first != '[') continue;
+
+            StringBuilder sb = new StringBuilder();
+            if (first == '"') {
+                ConfigTokenizer.appendQuoted(sb, value);
+            } else {
+                List<String> items = ConfigParser.parseStringList(value, false);
+                sb.append('[');
+                for (int i = 0; i < items.size(); i++) {
+                    if (i > 0) sb.append(", ");
+                    ConfigTokenizer.appendQuoted(sb, items.get(i));
+                }
+                sb.append(']');
+            }
+            patch.replace(entry.getKey(), sb.toString());
+        }
+        patch.insert("", ConfigTokenizer.FORMAT_KEY, ConfigTokenizer.FORMAT_KEY + " = ",
+                String.valueOf(ConfigTokenizer.ESCAPED_FORMAT));
+        return patch.apply();
+    }
+
+    /**
+     * The value of {@code key} exactly as written, or {@code null} if the document has no such key.
+     */
+    public String getRawValue(String key) {
+        int[] span = spans.get(key);
+        return span != null ? text.substring(span[0], span[1]) : null;
+    }
+
+    public Patch patch() {
+        return new Patch();
+    }
+
+    /**
+     * Collects value changes for one save. Nothing is copied until {@link #apply()}.
+     */
+    public final class Patch {
+        private final List<Edit> edits = new ArrayList<>();
+        // New keys of sections that have no header yet, appended at the end in first-use order
+        private final Map<String, List<Edit>> newSections = new LinkedHashMap<>();
+
+        private Patch() {
+        }
+
+        /**
+         * Replaces the value of an existing key with {@code literal}, a TOML value such as {@code "\"text\""}.
+         */
+        public Patch replace(String key, String literal) {
+            int[] span = span(key);
+            edits.add(new Edit(span[0], span[1], key, null, "", literal, ""));
+            return this;
+        }
+
+        /**
+         * Renames {@code oldKey} in place, keeping its line, comment and the text between key and value.
+         *
+         * @param keyText the key as written in the section of {@code oldKey}
+         * @param literal the new value, or {@code null} to keep the value as written
+         */
+        public Patch move(String oldKey, String newKey, String keyText, String literal) {
+            int[] span = span(oldKey);
+            int keyStart = keyStart(span[0]);
+            int keyEnd = keyEnd(keyStart, span[0]);
+            String separator = text.substring(keyEnd, span[0]);
+            edits.add(new Edit(keyStart, span[1], newKey, oldKey, keyText + separator,
+                    literal != null ? literal : text.substring(span[0], span[1]), ""));
+            return this;
+        }
+
+        /**
+         * Removes the line of {@code key}, all lines of it for a multi-line array.
+         */
+        public Patch remove(String key) {
+            int[] span = span(key);
+            int lineStart = keyStart(span[0]);
+            lineStart = text.lastIndexOf('\n', lineStart - 1) + 1;
+            int lineEnd = text.indexOf('\n', span[1]);
+            edits.add(new Edit(lineStart, lineEnd < 0 ? text.length() : lineEnd + 1, null, key, "", "", ""));
+            return this;
+        }
+
+        /**
+         * Adds a key that is not in the document yet after the last entry of {@code section}, starting a new
+         * section at the end of the document if there is no such header.
+         *
+         * @param leading text written before the literal, e.g. a comment line and {@code "key = "}
+         */
+        public Patch insert(String section, String key, String leading, String literal) {
+            Integer end = sectionEnds.get(section);
+            if (end != null) {
+                edits.add(new Edit(end, end, key, null, leading, literal, "\n"));
+            } else {
+                newSections.computeIfAbsent(section, s -> new ArrayList<>())
+                        .add(new Edit(text.length(), text.length(), key, null, leading, literal, "\n"));
+            }
+            return this;
+        }
+
+        public boolean isEmpty() {
+            return edits.isEmpty() && newSections.isEmpty();
+        }
+
+        /**
+         * Splices every change into a copy of the text. Spans of the other keys are shifted, not re-parsed.
+         *
+         * @return this document itself if nothing changed
+         */
+        public ConfigDocument apply() {
+            if (isEmpty()) {
+                return ConfigDocument.this;
+            }
+
+            // Stable, so inserts at the same position keep their order; inserts go before an edit starting there
+            edits.sort(Comparator.<Edit>comparingInt(edit -> edit.start).thenComparingInt(edit -> edit.end));
+            StringBuilder sb = new StringBuilder(text.length() + 64 * (edits.size() + newSections.size()));
+            Map<String, int[]> newSpans = new HashMap<>(spans);
+            Map<String, Integer> newSectionEnds = new HashMap<>(sectionEnds);
+            int[] positions = new int[edits.size()];
+            int[] shifts = new int[edits.size()];
+
+            int copied = 0;
+            for (int i = 0; i < edits.size(); i++) {
+                Edit edit = edits.get(i);
+                sb.append(text, copied, edit.start);
+                write(sb, edit, newSpans);
+                copied = edit.end;
+                positions[i] = edit.end;
+                shifts[i] = sb.length() - copied;
+            }
+            sb.append(text, copied, text.length());
+
+            for (Map.Entry<String, List<Edit>> section : newSections.entrySet()) {
+                if (sb.length() > 0 && sb.charAt(sb.length() - 1) != '\n') sb.append('\n');
+                sb.append('[').append(section.getKey()).append("]\n");
+                for (Edit edit : section.getValue()) {
+                    write(sb, edit, newSpans);
+                }
+                newSectionEnds.put(section.getKey(), sb.length());
+            }
+
+            // Untouched values move by the length change of all edits before them
+            for (Map.Entry<String, int[]> entry : spans.entrySet()) {
+                if (newSpans.get(entry.getKey()) != entry.getValue()) continue;
+                int[] span = entry.getValue();
+                int shift = shiftAt(positions, shifts, span[0]);
+                if (shift != 0) {
+                    newSpans.put(entry.getKey(), new int[]{span[0] + shift, span[1] + shift});
+                }
+            }
+            for (Map.Entry<String, Integer> entry : sectionEnds.entrySet()) {
+                // Keys inserted at a section end belong to that section, so the end moves past them
+                int end = entry.getValue();
+                newSectionEnds.put(entry.getKey(), end + shiftAt(positions, shifts, end));
+            }
+
+            String newText = sb.toString();
+            return new ConfigDocument(newText, ContentHash.of(newText), newSpans, newSectionEnds,
+                    escaped || newSpans.containsKey(ConfigTokenizer.FORMAT_KEY));
+        }
+
+        private void write(StringBuilder sb, Edit edit, Map<String, int[]> newSpans) {
+            if (edit.oldKey != null) {
+                newSpans.remove(edit.oldKey);
+            }
+            sb.append(edit.leading);
+            int start = sb.length();
+            sb.append(edit.literal);
+            if (edit.key != null) {
+                newSpans.put(edit.key, new int[]{start, sb.length()});
+            }
+            sb.append(edit.trailing);
+        }
+
+        private int[] span(String key) {
+            int[] span = spans.get(key);
+            if (span == null) {
+                throw new IllegalArgumentException("No value for key " + key + " in the document");
+            }
+            return span;
+        }
+
+        /**
+         * Start of the key on the line of the value starting at {@code valueStart}.
+         */
+        private int keyStart(int valueStart) {
+            int pos = text.lastIndexOf('\n', valueStart - 1) + 1;
+            while (pos < valueStart && (text.charAt(pos) == ' ' || text.charAt(pos) == '\t')) pos++;
+            return pos;
+        }
+
+        /**
+         * End of the key, before the blanks and {@code =} that separate it from the value.
+         */
+        private int keyEnd(int keyStart, int valueStart) {
+            int pos = text.lastIndexOf('=', valueStart - 1);
+            while (pos > keyStart && (text.charAt(pos - 1) == ' ' || text.charAt(pos - 1) == '\t')) pos--;
+            return pos;
+        }
+
+        /**
+         * Total length change of the edits that end at or before {@code position}.
+         */
+        private int shiftAt(int[] positions, int[] shifts, int position) {
+            int index = Arrays.binarySearch(positions, position);
+            if (index < 0) {
+                index = -index - 2;
+            } else {
+                // Several edits can end at the same position, take the last of them
+                while (index + 1 < positions.length && positions[index + 1] == position) index++;
+            }
+            return index >= 0 ? shifts[index] : 0;
+        }
+    }
+
+    private static final class Edit {
+        private final int start;
+        private final int end;
+        // Key whose value is written by the edit, null if none
+        private final String key;
+        // Key that no longer exists after the edit, null if none
+        private final String oldKey;
+        private final String leading;
+        private final String literal;
+        private final String trailing;
+
+        private Edit(int start, int end, String key, String oldKey, String leading, String literal, String trailing) {
+            this.start = start;
+            this.end = end;
+            this.key = key;
+            this.oldKey = oldKey;
+            this.leading = leading;
+            this.literal = literal;
+            this.trailing = trailing;
+        }
+    }
+
+    private static final class Builder implements ConfigTokenizer.Handler {
+        private final String text;
+        private final ConfigTokenizer.Handler entries;
+        private final Map<String, int[]> spans = new HashMap<>();
+        private final Map<String, Integer> sectionEnds = new HashMap<>();
+        private String section = "";
+
+        private Builder(String text, ConfigTokenizer.Handler entries) {
+            this.text = text;
+            this.entries = entries;
+        }
+
+        @Override
+        public void onEntry(String key, String value) {
+            entries.onEntry(key, value);
+        }
+
+        @Override
+        public void onEntry(String key, String value, int valueStart, int valueEnd) {
+            entries.onEntry(key, value);
+            spans.put(key, new int[]{valueStart, valueEnd});
+            int lineEnd = text.indexOf('\n', valueEnd);
+            sectionEnds.put(section, lineEnd < 0 ? text.length() : lineEnd + 1);
+        }
+
+        @Override
+        public void onSection(int nameStart, int nameEnd, int lineEnd) {
+            if (section.isEmpty() && !sectionEnds.containsKey("")) {
+                // Root keys go above the first header
+                sectionEnds.put("", text.lastIndexOf('\n', nameStart) + 1);
+            }
+            section = text.substring(nameStart, nameEnd);
+            sectionEnds.putIfAbsent(section, lineEnd);
+        }
+
+        ConfigDocument build(long contentHash, boolean escaped) {
+            sectionEnds.putIfAbsent("", text.length());
+            return new ConfigDocument(text, contentHash, spans, sectionEnds, escaped);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package me.zcraft.tc.config;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.MutableCallSite;
+import java.util.Objects;
+
+/**
+ * Config value exposed through a {@link MutableCallSite} whose target is a constant.
+ * <p>
+ * Store {@link #invoker()} in a {@code static final MethodHandle} and call it with {@code invokeExact}; the JIT then
+ * folds the current value into the compiled code. A reload that really changes the value retargets the call site,
+ * which deoptimizes the dependent code once. Unchanged values never invalidate anything.
+ */
+public class ConfigHandle<T> {
+    private final String path;
+    private final Class<?> type;
+    private final MutableCallSite callSite;
+    private final MethodHandle invoker;
+    private volatile Object current;
+
+    ConfigHandle(String path, Class<?> type, Object initialValue) {
+        this.path = path;
+        this.type = type;
+        this.current = initialValue;
+        this.callSite = new MutableCallSite(constant(initialValue));
+        this.invoker = callSite.dynamicInvoker();
+    }
+
+    /**
+     * The {@code ()type} invoker of the call site, with {@code type} being the declared field type.
+     */
+    public MethodHandle invoker() {
+        return invoker;
+    }
+
+    public MethodType type() {
+        return invoker.type();
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    @SuppressWarnings("unchecked")
+    public T get() {
+        return (T) current;
+    }
+
+    /**
+     * Convenience getter. It calls the invoker through an instance field, which the JIT doesn't treat as constant,
+     * so the value is not folded even if this handle is kept in a static final field; use {@link #invoker()}
+     * for that. The same goes for the other {@code getAs} methods.
+     */
+    public int getAsInt() {
+        try {
+            return (int) invoker.invokeExact();
+        } catch (Throwable e) {
+            throw wrongType(e);
+        }
+    }
+
+    public long getAsLong() {
+        try {
+            return (long) invoker.invokeExact();
+        } catch (Throwable e) {
+            throw wrongType(e);
+        }
+    }
+
+    public double getAsDouble() {
+        try {
+            return (double) invoker.invokeExact();
+        } catch (Throwable e) {
+            throw wrongType(e);
+        }
+    }
+
+    public boolean getAsBoolean() {
+        try {
+            return (boolean) invoker.invokeExact();
+        } catch (Throwable e) {
+            throw wrongType(e);
+        }
+    }
+
+    /**
+     * Retargets the call site if the value changed. The caller publishes all changed sites with
+     * {@link MutableCallSite#syncAll}.
+     */
+    MutableCallSite update(Object value) {
+        if (Objects.equals(current, value) || (value == null && type.isPrimitive())) {
+            return null;
+        }
+        current = value;
+        callSite.setTarget(constant(value));
+        return callSite;
+    }
+
+    private MethodHandle constant(Object value) {
+        return MethodHandles.constant(type, value);
+    }
+
+    private RuntimeException wrongType(Throwable e) {
+        return new IllegalStateException("Config handle " + path + " is of type " + type.getSimpleName(), e);
+    }
+}
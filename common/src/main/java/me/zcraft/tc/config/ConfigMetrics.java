@@ -0,0 +1,268 @@
+package me.zcraft.tc.config;
+
+import me.zcraft.tc.TritiumCommon;
+
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+
+/**
+ * Runtime counters of one config, see {@link TritiumConfig#getMetrics()}. Everything is a {@link LongAdder}, so
+ * recording never takes a lock. {@link #toPrometheus(Collection)} renders the metrics of several configs in the
+ * Prometheus text exposition format.
+ * <p>
+ * Cached {@link ConfigValue} reads are only counted with {@code -Dtritium.metrics.valueReads=true}, since they
+ * happen on hot paths; refreshes are always counted.
+ */
+public final class ConfigMetrics {
+    static final boolean TRACK_VALUE_READS = Boolean.getBoolean("tritium.metrics.valueReads");
+
+    // Upper bounds of the latency histogram buckets, in milliseconds
+    private static final double[] LATENCY_BOUNDS_MS = {0.1, 0.5, 1, 5, 10, 50, 100, 500, 1000};
+
+    private final String modId;
+    private final long createdNanos = System.nanoTime();
+    private final LongAdder valueRefreshes = new LongAdder();
+    private final LongAdder valueHits = new LongAdder();
+    private final LongAdder reloadsTriggered = new LongAdder();
+    private final LongAdder reloadsSkipped = new LongAdder();
+    private final LongAdder reloadsFailed = new LongAdder();
+    private final LongAdder saves = new LongAdder();
+    private final LongAdder savesSkipped = new LongAdder();
+    private final LongAdder watcherEvents = new LongAdder();
+    private final Histogram reloadLatency = new Histogram();
+    private final Histogram saveLatency = new Histogram();
+    private final Map<String, LongAdder> validationFailures = new ConcurrentHashMap<>();
+
+    ConfigMetrics(String modId) {
+        this.modId = modId;
+    }
+
+    void valueRefreshed() {
+        valueRefreshes.increment();
+    }
+
+    void valueHit() {
+        valueHits.increment();
+    }
+
+    void reloadTriggered() {
+        reloadsTriggered.increment();
+    }
+
+    void reloadSkipped() {
+        reloadsSkipped.increment();
+    }
+
+    void reloadFailed() {
+        reloadsFailed.increment();
+    }
+
+    void reloadCompleted(long nanos) {
+        reloadLatency.record(nanos);
+    }
+
+    void saved(long nanos) {
+        saves.increment();
+        saveLatency.record(nanos);
+    }
+
+    void saveSkipped() {
+        savesSkipped.increment();
+    }
+
+    void watcherEvent() {
+        watcherEvents.increment();
+    }
+
+    /**
+     * @param path the config path that failed, or {@code "validateConfig"} for the class-level check
+     */
+    void validationFailed(String path) {
+        validationFailures.computeIfAbsent(path, p -> new LongAdder()).increment();
+    }
+
+    public String getModId() {
+        return modId;
+    }
+
+    public long getValueRefreshes() {
+        return valueRefreshes.sum();
+    }
+
+    /**
+     * Cached {@link ConfigValue} reads, always 0 unless {@code tritium.metrics.valueReads} is set.
+     */
+    public long getValueHits() {
+        return valueHits.sum();
+    }
+
+    public long getReloadsTriggered() {
+        return reloadsTriggered.sum();
+    }
+
+    /**
+     * Reloads that found the file content unchanged.
+     */
+    public long getReloadsSkipped() {
+        return reloadsSkipped.sum();
+    }
+
+    public long getReloadsFailed() {
+        return reloadsFailed.sum();
+    }
+
+    public long getSaves() {
+        return saves.sum();
+    }
+
+    public long getSavesSkipped() {
+        return savesSkipped.sum();
+    }
+
+    public long getWatcherEvents() {
+        return watcherEvents.sum();
+    }
+
+    /**
+     * File events per second since the config was created.
+     */
+    public double getWatcherEventRate() {
+        double seconds = (System.nanoTime() - createdNanos) / 1e9;
+        return seconds > 0 ? watcherEvents.sum() / seconds : 0;
+    }
+
+    public Histogram getReloadLatency() {
+        return reloadLatency;
+    }
+
+    public Histogram getSaveLatency() {
+        return saveLatency;
+    }
+
+    public Map<String, Long> getValidationFailures() {
+        Map<String, Long> failures = new TreeMap<>();
+        validationFailures.forEach((path, count) -> failures.put(path, count.sum()));
+        return failures;
+    }
+
+    public void logSummary() {
+        TritiumCommon.LOG.info(
+                "Config metrics for mod {}: value refreshes={}, value hits={}, reloads={} (skipped={}, failed={}, mean={} ms), saves={} (skipped={}, mean={} ms), watcher events={} ({}/s), validation failures={}",
+                modId, getValueRefreshes(), getValueHits(), getReloadsTriggered(), getReloadsSkipped(), getReloadsFailed(),
+                format(reloadLatency.getMeanMillis()), getSaves(), getSavesSkipped(), format(saveLatency.getMeanMillis()),
+                getWatcherEvents(), format(getWatcherEventRate()), getValidationFailures()
+        );
+    }
+
+    public static String toPrometheus(Collection<ConfigMetrics> all) {
+        StringBuilder sb = new StringBuilder();
+        counter(sb, all, "tritium_config_value_refreshes_total", "Config value cache refreshes", ConfigMetrics::getValueRefreshes);
+        counter(sb, all, "tritium_config_value_hits_total", "Config value cache hits", ConfigMetrics::getValueHits);
+        counter(sb, all, "tritium_config_reloads_total", "Config reloads triggered", ConfigMetrics::getReloadsTriggered);
+        counter(sb, all, "tritium_config_reloads_skipped_total", "Config reloads skipped because the file was unchanged", ConfigMetrics::getReloadsSkipped);
+        counter(sb, all, "tritium_config_reloads_failed_total", "Config reloads that failed", ConfigMetrics::getReloadsFailed);
+        counter(sb, all, "tritium_config_saves_total", "Config files written", ConfigMetrics::getSaves);
+        counter(sb, all, "tritium_config_saves_skipped_total", "Config saves skipped because the content was unchanged", ConfigMetrics::getSavesSkipped);
+        counter(sb, all, "tritium_config_watcher_events_total", "Config file watcher events", ConfigMetrics::getWatcherEvents);
+
+        sb.append("# HELP tritium_config_validation_failures_total Config validation failures by path\n");
+        sb.append("# TYPE tritium_config_validation_failures_total counter\n");
+        for (ConfigMetrics metrics : all) {
+            metrics.getValidationFailures().forEach((path, count) -> sb.append("tritium_config_validation_failures_total{mod=\"")
+                    .append(escape(metrics.modId)).append("\",path=\"").append(escape(path)).append("\"} ").append(count).append('\n'));
+        }
+
+        histogram(sb, all, "tritium_config_reload_duration_seconds", "Config reload latency", true);
+        histogram(sb, all, "tritium_config_save_duration_seconds", "Config save latency", false);
+        return sb.toString();
+    }
+
+    private static void counter(StringBuilder sb, Collection<ConfigMetrics> all, String name, String help,
+                                ToLongFunction<ConfigMetrics> value) {
+        sb.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        sb.append("# TYPE ").append(name).append(" counter\n");
+        for (ConfigMetrics metrics : all) {
+            sb.append(name).append("{mod=\"").append(escape(metrics.modId)).append("\"} ")
+                    .append(value.applyAsLong(metrics)).append('\n');
+        }
+    }
+
+    private static void histogram(StringBuilder sb, Collection<ConfigMetrics> all, String name, String help, boolean reload) {
+        sb.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        sb.append("# TYPE ").append(name).append(" histogram\n");
+        for (ConfigMetrics metrics : all) {
+            Histogram histogram = reload ? metrics.reloadLatency : metrics.saveLatency;
+            String mod = escape(metrics.modId);
+            long cumulative = 0;
+            for (int i = 0; i < LATENCY_BOUNDS_MS.length; i++) {
+                cumulative += histogram.buckets[i].sum();
+                sb.append(name).append("_bucket{mod=\"").append(mod).append("\",le=\"")
+                        .append(LATENCY_BOUNDS_MS[i] / 1000).append("\"} ").append(cumulative).append('\n');
+            }
+            cumulative += histogram.buckets[LATENCY_BOUNDS_MS.length].sum();
+            sb.append(name).append("_bucket{mod=\"").append(mod).append("\",le=\"+Inf\"} ").append(cumulative).append('\n');
+            sb.append(name).append("_sum{mod=\"").append(mod).append("\"} ").append(histogram.totalNanos.sum() / 1e9).append('\n');
+            sb.append(name).append("_count{mod=\"").append(mod).append("\"} ").append(histogram.count.sum()).append('\n');
+        }
+    }
+
+    private static String escape(String label) {
+        return label.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.3f", value);
+    }
+
+    /**
+     * Latency histogram with fixed millisecond buckets.
+     */
+    public static final class Histogram {
+        private final LongAdder[] buckets = new LongAdder[LATENCY_BOUNDS_MS.length + 1];
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+
+        private Histogram() {
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        void record(long nanos) {
+            double millis = nanos / 1e6;
+            int bucket = 0;
+            while (bucket < LATENCY_BOUNDS_MS.length && millis > LATENCY_BOUNDS_MS[bucket]) {
+                bucket++;
+            }
+            buckets[bucket].increment();
+            count.increment();
+            totalNanos.add(nanos);
+        }
+
+        public long getCount() {
+            return count.sum();
+        }
+
+        public double getMeanMillis() {
+            long n = count.sum();
+            return n > 0 ? TimeUnit.NANOSECONDS.toMicros(totalNanos.sum() / n) / 1000.0 : 0;
+        }
+
+        /**
+         * Counts per bucket, keyed by the bucket's upper bound in milliseconds; the last bucket has no bound.
+         */
+        public Map<Double, Long> getBuckets() {
+            Map<Double, Long> result = new TreeMap<>();
+            for (int i = 0; i < buckets.length; i++) {
+                result.put(i < LATENCY_BOUNDS_MS.length ? LATENCY_BOUNDS_MS[i] : Double.POSITIVE_INFINITY, buckets[i].sum());
+            }
+            return result;
+        }
+    }
+}
@@ -4,173 +4,500 @@ package me.zcraft.tc.config;
 import me.zcraft.tc.TritiumCommon;
 
 import java.io.IOException;
+import java.nio.CharBuffer;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
+import java.util.function.BooleanSupplier;
+import java.util.function.DoubleSupplier;
+import java.util.function.Function;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
 import java.util.function.Supplier;
 
+/**
+ * Loads a config file into {@link #configValues} and converts every requested key to its target type
+ * exactly once per load. The typed getters hand out suppliers that only read a slot of the typed table.
+ */
 public class ConfigParser {
+    private static final ClassValue<Map<String, Enum<?>>> ENUM_LOOKUP = new ClassValue<>() {
+        @Override
+        protected Map<String, Enum<?>> computeValue(Class<?> type) {
+            Map<String, Enum<?>> constants = new HashMap<>();
+            for (Object constant : type.getEnumConstants()) {
+                Enum<?> e = (Enum<?>) constant;
+                constants.putIfAbsent(e.name().toUpperCase(Locale.ROOT), e);
+            }
+            return Map.copyOf(constants);
+        }
+    };
+
     public final Map<String, String> configValues = new HashMap<>();
     private final Path configPath;
+    private final ConfigTokenizer tokenizer = new ConfigTokenizer();
+    private final Map<String, Slot> slotsByKey = new HashMap<>();
+    private final List<Slot> slots = new ArrayList<>();
     private long lastLoadTime = 0;
-    private String currentSection = "";
+    private long contentHash;
+    private int contentLength;
+    private boolean loaded;
+    private ConfigDocument document;
+    private boolean escapedStrings;
+    private final Map<String, Long> sectionHashes = new HashMap<>();
+    private Set<String> changedSections = Set.of();
+
+    private boolean[] booleanSlots = new boolean[8];
+    private int[] intSlots = new int[8];
+    private long[] longSlots = new long[8];
+    private double[] doubleSlots = new double[8];
+    private Object[] objectSlots = new Object[8];
+    private int booleanCount, intCount, longCount, doubleCount, objectCount;
 
     public ConfigParser(Path configPath) {
+        this(configPath, true);
+    }
+
+    /**
+     * @param load {@code false} to defer reading the file to the first {@link #load()}, e.g. when the values
+     *             already came from the compiled cache
+     */
+    public ConfigParser(Path configPath, boolean load) {
         this.configPath = configPath;
-        load();
+        if (load) {
+            load();
+        }
     }
 
-    public void load() {
+    /**
+     * Reads the file again unless its content hash is the one already loaded. Only slots of sections whose
+     * entries changed are re-converted, see {@link #getChangedSections()}.
+     *
+     * @return {@code false} if the file was missing, unreadable or unchanged
+     */
+    public synchronized boolean load() {
         if (!Files.exists(configPath)) {
             TritiumCommon.LOG.warn("Config file not found: {}", configPath);
-            return;
+            return false;
         }
 
         try {
-            configValues.clear();
-            currentSection = "";
-            Files.lines(configPath).forEach(line -> {
-                String trimmed = line.trim();
-                if (trimmed.startsWith("#") || trimmed.isEmpty()) {
-                    return;
-                }
-
-                if (trimmed.startsWith("[") && trimmed.endsWith("]")) {
-                    currentSection = trimmed.substring(1, trimmed.length() - 1).trim();
-                    return;
-                }
-
-                String[] parts = line.split("=", 2);
-                if (parts.length == 2) {
-                    String key = parts[0].trim();
-                    String value = parts[1].trim();
-
-                    String fullKey = currentSection.isEmpty() ? key : currentSection + "." + key;
-                    if (value.startsWith("\"") && value.endsWith("\"")) {
-                        value = value.substring(1, value.length() - 1);
-                    }
+            CharBuffer content = ConfigTokenizer.read(configPath);
+            long hash = ContentHash.of(content);
+            if (loaded && hash == contentHash) {
+                TritiumCommon.LOG.debug("Config file unchanged: {}", configPath);
+                return false;
+            }
 
-                    configValues.put(fullKey, value);
-                }
-            });
+            contentHash = hash;
+            contentLength = content.length();
+            configValues.clear();
+            document = ConfigDocument.parse(content, hash, tokenizer, configValues::put);
+            escapedStrings = document.isEscaped();
+            changedSections = updateSectionHashes();
+            if (loaded) {
+                convertSlots(changedSections);
+            } else {
+                convertSlots();
+            }
+            loaded = true;
             lastLoadTime = System.currentTimeMillis();
             TritiumCommon.LOG.debug("Loaded {} config values from: {}", configValues.size(), configPath);
+            return true;
         } catch (IOException e) {
             TritiumCommon.LOG.error("Failed to load config file: {}", configPath, e);
+            return false;
         }
     }
 
-    public Supplier<Boolean> getBoolean(String key, boolean defaultValue) {
-        return () -> {
-            String value = configValues.get(key);
-            if (value == null) return defaultValue;
+    /**
+     * Replaces the loaded values with migrated ones and re-converts the slots, so the migrated file doesn't have
+     * to be read back. Sections changed by the migration count as changed by the last load.
+     *
+     * @param migrated the migrated file content, kept as the document if not {@code null}
+     */
+    synchronized void applyMigration(Map<String, String> values, ConfigDocument migrated) {
+        Set<String> loadedChanges = changedSections;
+        configValues.clear();
+        configValues.putAll(values);
+        if (migrated != null) {
+            document = migrated;
+            escapedStrings = migrated.isEscaped();
+            contentHash = migrated.getContentHash();
+            contentLength = migrated.getText().length();
+        }
 
-            value = value.toLowerCase().trim();
-            return value.equals("true") || value.equals("t") || value.equals("1") || value.equals("yes") || value.equals("y");
-        };
+        Set<String> changed = new HashSet<>(loadedChanges);
+        changed.addAll(updateSectionHashes());
+        changedSections = Collections.unmodifiableSet(changed);
+        convertSlots();
     }
 
-    public Supplier<Integer> getInt(String key, int defaultValue) {
-        return () -> {
-            String value = configValues.get(key);
-            if (value == null) return defaultValue;
+    /**
+     * Re-converts every registered slot from the current raw values, e.g. after a migration rewrote them.
+     */
+    public synchronized void convertSlots() {
+        for (Slot slot : slots) {
+            slot.convert(configValues.get(slot.key));
+        }
+    }
 
-            try {
-                return Integer.parseInt(value.trim());
-            } catch (NumberFormatException e) {
-                TritiumCommon.LOG.warn("Invalid integer value '{}' for key '{}', using default: {}", value, key, defaultValue);
-                return defaultValue;
+    private synchronized void convertSlots(Set<String> sections) {
+        for (Slot slot : slots) {
+            if (sections.contains(sectionOf(slot.key))) {
+                slot.convert(configValues.get(slot.key));
             }
-        };
+        }
     }
 
-    public Supplier<Long> getLong(String key, long defaultValue) {
-        return () -> {
-            String value = configValues.get(key);
-            if (value == null) return defaultValue;
+    /**
+     * Hashes the entries of every top-level section and returns the sections that were added, removed or
+     * changed since the previous load. Comment and formatting changes don't count.
+     */
+    private Set<String> updateSectionHashes() {
+        Map<String, Long> hashes = new HashMap<>();
+        for (Map.Entry<String, String> entry : configValues.entrySet()) {
+            long entryHash = ContentHash.of(entry.getKey()) * 31 + ContentHash.of(entry.getValue());
+            // Sum, so the result doesn't depend on map iteration order
+            hashes.merge(sectionOf(entry.getKey()), entryHash, Long::sum);
+        }
 
-            try {
-                return Long.parseLong(value.trim());
-            } catch (NumberFormatException e) {
-                TritiumCommon.LOG.warn("Invalid long value '{}' for key '{}', using default: {}", value, key, defaultValue);
-                return defaultValue;
-            }
-        };
+        Set<String> changed = new HashSet<>(sectionHashes.keySet());
+        changed.addAll(hashes.keySet());
+        changed.removeIf(section -> Objects.equals(sectionHashes.get(section), hashes.get(section)));
+        sectionHashes.clear();
+        sectionHashes.putAll(hashes);
+        return Collections.unmodifiableSet(changed);
+    }
+
+    /**
+     * Top-level sections whose entries changed in the last load that read the file.
+     */
+    public synchronized Set<String> getChangedSections() {
+        return changedSections;
+    }
+
+    /**
+     * Top-level section of a key, e.g. {@code "general"} for {@code "general.nested.tag"}, {@code ""} for a root key.
+     */
+    public static String sectionOf(String key) {
+        int dot = key.indexOf('.');
+        return dot < 0 ? "" : key.substring(0, dot);
+    }
+
+    public BooleanSupplier getBooleanSlot(String key, boolean defaultValue) {
+        BooleanSlot slot = slot("Z:" + key, defaultValue, () -> new BooleanSlot(key, defaultValue));
+        return () -> booleanSlots[slot.index];
+    }
+
+    public IntSupplier getIntSlot(String key, int defaultValue) {
+        IntSlot slot = slot("I:" + key, defaultValue, () -> new IntSlot(key, defaultValue));
+        return () -> intSlots[slot.index];
+    }
+
+    public LongSupplier getLongSlot(String key, long defaultValue) {
+        LongSlot slot = slot("J:" + key, defaultValue, () -> new LongSlot(key, defaultValue));
+        return () -> longSlots[slot.index];
+    }
+
+    public DoubleSupplier getDoubleSlot(String key, double defaultValue) {
+        DoubleSlot slot = slot("D:" + key, defaultValue, () -> new DoubleSlot(key, defaultValue));
+        return () -> doubleSlots[slot.index];
+    }
+
+    public Supplier<Boolean> getBoolean(String key, boolean defaultValue) {
+        BooleanSupplier slot = getBooleanSlot(key, defaultValue);
+        return slot::getAsBoolean;
+    }
+
+    public Supplier<Integer> getInt(String key, int defaultValue) {
+        IntSupplier slot = getIntSlot(key, defaultValue);
+        return slot::getAsInt;
+    }
+
+    public Supplier<Long> getLong(String key, long defaultValue) {
+        LongSupplier slot = getLongSlot(key, defaultValue);
+        return slot::getAsLong;
     }
 
     public Supplier<String> getString(String key, String defaultValue) {
-        return () -> {
-            String value = configValues.get(key);
-            return value != null ? value.trim() : defaultValue;
-        };
+        return objectSlot("S:" + key, key, defaultValue, "string", String::trim);
     }
 
     public Supplier<Double> getDouble(String key, double defaultValue) {
-        return () -> {
-            String value = configValues.get(key);
-            if (value == null) return defaultValue;
-
-            try {
-                return Double.parseDouble(value.trim());
-            } catch (NumberFormatException e) {
-                TritiumCommon.LOG.warn("Invalid double value '{}' for key '{}', using default: {}", value, key, defaultValue);
-                return defaultValue;
-            }
-        };
+        DoubleSupplier slot = getDoubleSlot(key, defaultValue);
+        return slot::getAsDouble;
     }
 
     @SuppressWarnings({"unchecked", "rawtypes"})
     public Supplier<Enum> getEnum(String key, Enum defaultValue) {
-        return () -> {
-            String value = configValues.get(key);
-            if (value == null) return defaultValue;
+        Map<String, Enum<?>> constants = ENUM_LOOKUP.get(defaultValue.getDeclaringClass());
+        return objectSlot("E:" + defaultValue.getDeclaringClass().getName() + ":" + key, key, defaultValue, "enum",
+                value -> {
+                    Enum<?> constant = constants.get(value.trim().toUpperCase(Locale.ROOT));
+                    if (constant == null) throw new IllegalArgumentException(value);
+                    return (Enum) constant;
+                });
+    }
 
-            try {
-                return Enum.valueOf(defaultValue.getClass(), value.trim().toUpperCase());
-            } catch (IllegalArgumentException e) {
-                TritiumCommon.LOG.warn("Invalid enum value '{}' for key '{}', using default: {}", value, key, defaultValue);
-                return defaultValue;
+    public Supplier<List<String>> getStringList(String key, List<String> defaultValue) {
+        return objectSlot("L:" + key, key, defaultValue, "list", value -> parseStringList(value, escapedStrings));
+    }
+
+    public long getLastLoadTime() {
+        return lastLoadTime;
+    }
+
+    /**
+     * {@link ContentHash} of the file content read by the last {@link #load()}.
+     */
+    public long getContentHash() {
+        return contentHash;
+    }
+
+    /**
+     * Length in characters of the file content read by the last {@link #load()}.
+     */
+    public int getContentLength() {
+        return contentLength;
+    }
+
+    /**
+     * The file as read by the last {@link #load()} or migrated by {@link #applyMigration}, {@code null} if neither
+     * happened yet.
+     */
+    public synchronized ConfigDocument getDocument() {
+        return document;
+    }
+
+    /**
+     * Whether {@link #load()} has read the file at least once since the parser was created or invalidated.
+     */
+    public synchronized boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Forgets the content hash of the last load, so the next {@link #load()} reads the file even if it is unchanged
+     * and re-converts every slot. Used when the loaded values were rejected and never became the config's state.
+     */
+    synchronized void invalidate() {
+        loaded = false;
+    }
+
+    public boolean hasKey(String key) {
+        return configValues.containsKey(key);
+    }
+
+    /**
+     * @param escapes whether quoted items use escapes, see {@link ConfigTokenizer#FORMAT_KEY}
+     */
+    static List<String> parseStringList(String value, boolean escapes) {
+        if (!value.startsWith("[") || !value.endsWith("]")) {
+            return Collections.singletonList(value.trim());
+        }
+
+        List<String> result = new ArrayList<>();
+        StringBuilder item = new StringBuilder();
+        boolean quoted = false;
+        boolean sawItem = false;
+
+        for (int i = 1; i < value.length() - 1; i++) {
+            char c = value.charAt(i);
+            if (quoted) {
+                if (c == '\\' && escapes && i + 1 < value.length() - 1) {
+                    char next = value.charAt(++i);
+                    switch (next) {
+                        case 'n' -> item.append('\n');
+                        case 't' -> item.append('\t');
+                        case 'r' -> item.append('\r');
+                        case '"', '\\' -> item.append(next);
+                        default -> item.append('\\').append(next);
+                    }
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    item.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+                sawItem = true;
+            } else if (c == ',') {
+                result.add(sawItem ? item.toString() : item.toString().trim());
+                item.setLength(0);
+                sawItem = false;
+            } else if (!sawItem && !Character.isWhitespace(c)) {
+                item.append(c);
+            } else if (!sawItem && item.length() > 0) {
+                item.append(c);
             }
-        };
+        }
+
+        String last = sawItem ? item.toString() : item.toString().trim();
+        if (sawItem || !last.isEmpty()) {
+            result.add(last);
+        }
+        return result;
     }
 
     @SuppressWarnings("unchecked")
-    public Supplier<List<String>> getStringList(String key, List<String> defaultValue) {
-        return () -> {
-            String value = configValues.get(key);
-            if (value == null) return defaultValue;
+    private synchronized <S extends Slot> S slot(String id, Object defaultValue, Supplier<S> factory) {
+        Slot existing = slotsByKey.get(id);
+        if (existing != null && Objects.equals(existing.defaultValue, defaultValue)) {
+            return (S) existing;
+        }
+
+        S slot = factory.get();
+        slot.convert(configValues.get(slot.key));
+        slots.add(slot);
+        slotsByKey.put(id, slot);
+        return slot;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Supplier<T> objectSlot(String id, String key, T defaultValue, String typeName, Function<String, ? extends T> converter) {
+        ObjectSlot slot = slot(id, defaultValue, () -> new ObjectSlot(key, defaultValue, typeName, converter));
+        return () -> (T) objectSlots[slot.index];
+    }
+
+    private abstract static class Slot {
+        final String key;
+        final Object defaultValue;
+        final int index;
+
+        Slot(String key, Object defaultValue, int index) {
+            this.key = key;
+            this.defaultValue = defaultValue;
+            this.index = index;
+        }
+
+        abstract void convert(String value);
+    }
+
+    private final class BooleanSlot extends Slot {
+        private final boolean defaultBoolean;
+
+        BooleanSlot(String key, boolean defaultValue) {
+            super(key, defaultValue, booleanCount);
+            this.defaultBoolean = defaultValue;
+            if (booleanCount == booleanSlots.length) booleanSlots = Arrays.copyOf(booleanSlots, booleanCount * 2);
+            booleanCount++;
+        }
+
+        @Override
+        void convert(String value) {
+            if (value == null) {
+                booleanSlots[index] = defaultBoolean;
+                return;
+            }
+
+            value = value.toLowerCase(Locale.ROOT).trim();
+            booleanSlots[index] = value.equals("true") || value.equals("t") || value.equals("1") || value.equals("yes") || value.equals("y");
+        }
+    }
+
+    private final class IntSlot extends Slot {
+        private final int defaultInt;
+
+        IntSlot(String key, int defaultValue) {
+            super(key, defaultValue, intCount);
+            this.defaultInt = defaultValue;
+            if (intCount == intSlots.length) intSlots = Arrays.copyOf(intSlots, intCount * 2);
+            intCount++;
+        }
+
+        @Override
+        void convert(String value) {
+            if (value == null) {
+                intSlots[index] = defaultInt;
+                return;
+            }
 
             try {
-                if (value.startsWith("[") && value.endsWith("]")) {
-                    String arrayContent = value.substring(1, value.length() - 1).trim();
-                    if (arrayContent.isEmpty()) {
-                        return new ArrayList<>();
-                    }
+                intSlots[index] = Integer.parseInt(value.trim());
+            } catch (NumberFormatException e) {
+                TritiumCommon.LOG.warn("Invalid integer value '{}' for key '{}', using default: {}", value, key, defaultInt);
+                intSlots[index] = defaultInt;
+            }
+        }
+    }
 
-                    List<String> result = new ArrayList<>();
-                    String[] items = arrayContent.split(",");
-                    for (String item : items) {
-                        String trimmedItem = item.trim();
-                        if (trimmedItem.startsWith("\"") && trimmedItem.endsWith("\"")) {
-                            trimmedItem = trimmedItem.substring(1, trimmedItem.length() - 1);
-                        }
-                        result.add(trimmedItem);
-                    }
-                    return result;
-                }
-                return Collections.singletonList(value.trim());
-            } catch (Exception e) {
-                TritiumCommon.LOG.warn("Invalid list value '{}' for key '{}', using default: {}", value, key, defaultValue);
-                return defaultValue;
+    private final class LongSlot extends Slot {
+        private final long defaultLong;
+
+        LongSlot(String key, long defaultValue) {
+            super(key, defaultValue, longCount);
+            this.defaultLong = defaultValue;
+            if (longCount == longSlots.length) longSlots = Arrays.copyOf(longSlots, longCount * 2);
+            longCount++;
+        }
+
+        @Override
+        void convert(String value) {
+            if (value == null) {
+                longSlots[index] = defaultLong;
+                return;
+            }
+
+            try {
+                longSlots[index] = Long.parseLong(value.trim());
+            } catch (NumberFormatException e) {
+                TritiumCommon.LOG.warn("Invalid long value '{}' for key '{}', using default: {}", value, key, defaultLong);
+                longSlots[index] = defaultLong;
             }
-        };
+        }
     }
 
-    public long getLastLoadTime() {
-        return lastLoadTime;
+    private final class DoubleSlot extends Slot {
+        private final double defaultDouble;
+
+        DoubleSlot(String key, double defaultValue) {
+            super(key, defaultValue, doubleCount);
+            this.defaultDouble = defaultValue;
+            if (doubleCount == doubleSlots.length) doubleSlots = Arrays.copyOf(doubleSlots, doubleCount * 2);
+            doubleCount++;
+        }
+
+        @Override
+        void convert(String value) {
+            if (value == null) {
+                doubleSlots[index] = defaultDouble;
+                return;
+            }
+
+            try {
+                doubleSlots[index] = Double.parseDouble(value.trim());
+            } catch (NumberFormatException e) {
+                TritiumCommon.LOG.warn("Invalid double value '{}' for key '{}', using default: {}", value, key, defaultDouble);
+                doubleSlots[index] = defaultDouble;
+            }
+        }
     }
 
-    public boolean hasKey(String key) {
-        return configValues.containsKey(key);
+    private final class ObjectSlot extends Slot {
+        private final String typeName;
+        private final Function<String, ?> converter;
+
+        ObjectSlot(String key, Object defaultValue, String typeName, Function<String, ?> converter) {
+            super(key, defaultValue, objectCount);
+            this.typeName = typeName;
+            this.converter = converter;
+            if (objectCount == objectSlots.length) objectSlots = Arrays.copyOf(objectSlots, objectCount * 2);
+            objectCount++;
+        }
+
+        @Override
+        void convert(String value) {
+            if (value == null) {
+                objectSlots[index] = defaultValue;
+                return;
+            }
+
+            try {
+                objectSlots[index] = converter.apply(value);
+            } catch (RuntimeException e) {
+                TritiumCommon.LOG.warn("Invalid {} value '{}' for key '{}', using default: {}", typeName, value, key, defaultValue);
+                objectSlots[index] = defaultValue;
+            }
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,25 @@
+package me.zcraft.tc.config;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Thrown by {@link TritiumConfig#registerAll(Map)} when some configs failed to register. The others are
+ * registered normally; {@link #getFailures()} holds the cause for each mod that failed.
+ */
+public class ConfigRegistrationException extends RuntimeException {
+    private final Map<String, Throwable> failures;
+
+    public ConfigRegistrationException(Map<String, Throwable> failures) {
+        super("Failed to register config for mods: " + String.join(", ", failures.keySet()));
+        this.failures = Collections.unmodifiableMap(failures);
+        failures.values().forEach(this::addSuppressed);
+    }
+
+    /**
+     * @return the cause by mod id, in registration order
+     */
+    public Map<String, Throwable> getFailures() {
+        return failures;
+    }
+}
@@ -0,0 +1,49 @@
+package me.zcraft.tc.config;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable, fully validated version of a config. {@link TritiumConfig} publishes a new snapshot with a single
+ * volatile write after every reload or edit, so everything read from one snapshot belongs to the same version.
+ */
+public final class ConfigSnapshot {
+    private final long generation;
+    private final Map<String, Object> values;
+    private final Object root;
+
+    ConfigSnapshot(long generation, Map<String, Object> values, Object root) {
+        this.generation = generation;
+        // Not Map.copyOf, a value without a default (e.g. a List field initialized to null) is null
+        this.values = Collections.unmodifiableMap(new HashMap<>(values));
+        this.root = root;
+    }
+
+    public long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Value of a config path such as {@code "example.expl"}, or {@code null} if the path is unknown.
+     */
+    public Object get(String path) {
+        return values.get(path);
+    }
+
+    public boolean contains(String path) {
+        return values.containsKey(path);
+    }
+
+    public Map<String, Object> asMap() {
+        return values;
+    }
+
+    /**
+     * The config object built for this version. It must be treated as read-only.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getRoot() {
+        return (T) root;
+    }
+}
@@ -0,0 +1,422 @@
+package me.zcraft.tc.config;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Single-pass tokenizer for the flat TOML subset written by {@link TritiumConfig}.
+ * <p>
+ * Works directly on a char array and only allocates the final key and value strings of each entry.
+ * Section headers are kept in a reusable key buffer, so {@code [section]} lines allocate nothing.
+ * <p>
+ * Escapes in basic strings are only decoded once a root {@code config_format} key of at least
+ * {@link #ESCAPED_FORMAT} was read. Older files were written without escaping, so their quoted text is taken
+ * as it is.
+ */
+public class ConfigTokenizer {
+    /**
+     * Root key that marks a file whose strings are written with {@link #appendQuoted}.
+     */
+    public static final String FORMAT_KEY = "config_format";
+    public static final int ESCAPED_FORMAT = 2;
+
+    private static final long MAP_THRESHOLD = 64 * 1024;
+
+    private char[] keyBuffer = new char[64];
+    private char[] scratch = new char[64];
+    private int scratchLength;
+    private int sectionLength;
+    private int base;
+    private boolean escapes;
+
+    public interface Handler {
+        void onEntry(String key, String value);
+
+        /**
+         * Like {@link #onEntry(String, String)}, with the span of the value as written, quotes and brackets
+         * included. Offsets are relative to the start of the tokenized input.
+         */
+        default void onEntry(String key, String value, int valueStart, int valueEnd) {
+            onEntry(key, value);
+        }
+
+        /**
+         * Called for every {@code [section]} header.
+         *
+         * @param nameStart start of the trimmed section name
+         * @param nameEnd   end of the trimmed section name
+         * @param lineEnd   position after the header line
+         */
+        default void onSection(int nameStart, int nameEnd, int lineEnd) {
+        }
+    }
+
+    /**
+     * Reads and decodes a whole file in one go, memory-mapping it when it is large.
+     */
+    public static CharBuffer read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer bytes;
+            if (size >= MAP_THRESHOLD) {
+                bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            } else {
+                bytes = ByteBuffer.allocate((int) size);
+                while (bytes.hasRemaining() && channel.read(bytes) >= 0) {
+                    // keep reading until the buffer is full or EOF
+                }
+                bytes.flip();
+            }
+            return decode(bytes);
+        }
+    }
+
+    private static CharBuffer decode(ByteBuffer bytes) throws CharacterCodingException {
+        return StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE)
+                .decode(bytes);
+    }
+
+    /**
+     * Writes {@code value} as a basic string that {@link #tokenize} reads back unchanged in a file marked with
+     * {@link #FORMAT_KEY}.
+     */
+    public static void appendQuoted(StringBuilder sb, String value) {
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> sb.append(c);
+            }
+        }
+        sb.append('"');
+    }
+
+    public void tokenize(CharBuffer input, Handler handler) {
+        if (input.hasArray()) {
+            int offset = input.arrayOffset() + input.position();
+            tokenize(input.array(), offset, offset + input.remaining(), handler);
+        } else {
+            char[] chars = new char[input.remaining()];
+            input.duplicate().get(chars);
+            tokenize(chars, 0, chars.length, handler);
+        }
+    }
+
+    /**
+     * Whether the last tokenized input had the {@link #FORMAT_KEY} marker, i.e. its basic strings were unescaped.
+     */
+    public boolean isEscaped() {
+        return escapes;
+    }
+
+    public void tokenize(char[] buf, int start, int end, Handler handler) {
+        sectionLength = 0;
+        base = start;
+        escapes = false;
+        int pos = start;
+
+        while (pos < end) {
+            pos = skipBlank(buf, pos, end);
+            if (pos >= end) break;
+
+            char c = buf[pos];
+            if (c == '\n') {
+                pos++;
+            } else if (c == '#') {
+                pos = skipLine(buf, pos, end);
+            } else if (c == '[') {
+                pos = readSection(buf, pos + 1, end, handler);
+            } else {
+                pos = readEntry(buf, pos, end, handler);
+            }
+        }
+    }
+
+    private int readSection(char[] buf, int pos, int end, Handler handler) {
+        int close = pos;
+        while (close < end && buf[close] != ']' && buf[close] != '\n') close++;
+        if (close >= end || buf[close] != ']') {
+            // Not a section header, ignore the line like the old loader did
+            return skipLine(buf, pos, end);
+        }
+
+        int from = skipBlank(buf, pos, close);
+        int to = trimEnd(buf, from, close);
+        sectionLength = 0;
+        if (to > from) {
+            ensureKeyCapacity(to - from + 1);
+            System.arraycopy(buf, from, keyBuffer, 0, to - from);
+            keyBuffer[to - from] = '.';
+            sectionLength = to - from + 1;
+        }
+        int lineEnd = skipLine(buf, close + 1, end);
+        handler.onSection(from - base, to - base, lineEnd - base);
+        return lineEnd;
+    }
+
+    private int readEntry(char[] buf, int pos, int end, Handler handler) {
+        int keyLength = sectionLength;
+        int cursor = pos;
+
+        if (buf[cursor] == '"' || buf[cursor] == '\'') {
+            char quote = buf[cursor];
+            int close = cursor + 1;
+            while (close < end && buf[close] != quote && buf[close] != '\n') close++;
+            if (close >= end || buf[close] != quote) return skipLine(buf, cursor, end);
+            ensureKeyCapacity(keyLength + close - cursor - 1);
+            System.arraycopy(buf, cursor + 1, keyBuffer, keyLength, close - cursor - 1);
+            keyLength += close - cursor - 1;
+            cursor = skipBlank(buf, close + 1, end);
+        } else {
+            int keyStart = cursor;
+            while (cursor < end && buf[cursor] != '=' && buf[cursor] != '\n') cursor++;
+            int keyEnd = trimEnd(buf, keyStart, cursor);
+            ensureKeyCapacity(keyLength + keyEnd - keyStart);
+            System.arraycopy(buf, keyStart, keyBuffer, keyLength, keyEnd - keyStart);
+            keyLength += keyEnd - keyStart;
+        }
+
+        if (cursor >= end || buf[cursor] != '=') {
+            return skipLine(buf, cursor, end);
+        }
+
+        cursor = skipBlank(buf, cursor + 1, end);
+        String key = new String(keyBuffer, 0, keyLength);
+
+        if (cursor < end && buf[cursor] == '"') {
+            return readBasicString(buf, cursor, end, key, handler);
+        } else if (cursor < end && buf[cursor] == '\'') {
+            return readLiteralString(buf, cursor, end, key, handler);
+        } else if (cursor < end && buf[cursor] == '[') {
+            return readArray(buf, cursor, end, key, handler);
+        }
+
+        int valueStart = cursor;
+        while (cursor < end && buf[cursor] != '\n' && buf[cursor] != '#') cursor++;
+        int valueEnd = trimEnd(buf, valueStart, cursor);
+        String value = new String(buf, valueStart, valueEnd - valueStart);
+        if (sectionLength == 0 && key.equals(FORMAT_KEY)) {
+            escapes = isEscapedFormat(value);
+        }
+        handler.onEntry(key, value, valueStart - base, valueEnd - base);
+        return skipLine(buf, cursor, end);
+    }
+
+    private static boolean isEscapedFormat(String value) {
+        try {
+            return Integer.parseInt(value) >= ESCAPED_FORMAT;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private int readBasicString(char[] buf, int quote, int end, String key, Handler handler) {
+        int cursor = quote + 1;
+        boolean escaped = false;
+
+        while (cursor < end && buf[cursor] != '"' && buf[cursor] != '\n') {
+            char c = buf[cursor];
+            if (c == '\\' && escapes && cursor + 1 < end) {
+                // A backslash never continues a basic string on the next line, the string is unterminated
+                if (buf[cursor + 1] == '\n' || buf[cursor + 1] == '\r') break;
+                if (!escaped) {
+                    escaped = true;
+                    copyToScratch(buf, quote + 1, cursor);
+                }
+                cursor = unescape(buf, cursor + 1, end);
+                continue;
+            }
+            if (escaped) append(c);
+            cursor++;
+        }
+
+        if (cursor >= end || buf[cursor] != '"') {
+            // Unterminated string, keep the raw text so the typed getters can report it
+            int valueEnd = trimEnd(buf, quote, cursor);
+            handler.onEntry(key, new String(buf, quote, valueEnd - quote), quote - base, valueEnd - base);
+            return skipLine(buf, cursor, end);
+        }
+
+        String value = escaped ? new String(scratch, 0, scratchLength) : new String(buf, quote + 1, cursor - quote - 1);
+        handler.onEntry(key, value, quote - base, cursor + 1 - base);
+        return skipLine(buf, cursor + 1, end);
+    }
+
+    private int unescape(char[] buf, int pos, int end) {
+        char c = buf[pos];
+        switch (c) {
+            case 'n' -> append('\n');
+            case 't' -> append('\t');
+            case 'r' -> append('\r');
+            case 'b' -> append('\b');
+            case 'f' -> append('\f');
+            case '"' -> append('"');
+            case '\\' -> append('\\');
+            case 'u', 'U' -> {
+                int digits = c == 'u' ? 4 : 8;
+                int codePoint = parseHex(buf, pos + 1, Math.min(end, pos + 1 + digits), digits);
+                if (codePoint >= 0 && Character.isValidCodePoint(codePoint)) {
+                    ensureScratchCapacity(scratchLength + 2);
+                    scratchLength += Character.toChars(codePoint, scratch, scratchLength);
+                    return pos + 1 + digits;
+                }
+                append('\\');
+                append(c);
+            }
+            default -> {
+                // Unknown escape: keep it verbatim
+                append('\\');
+                append(c);
+            }
+        }
+        return pos + 1;
+    }
+
+    private static int parseHex(char[] buf, int from, int to, int digits) {
+        if (to - from != digits) return -1;
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            int digit = Character.digit(buf[i], 16);
+            if (digit < 0) return -1;
+            value = (value << 4) | digit;
+        }
+        return value;
+    }
+
+    private int readLiteralString(char[] buf, int quote, int end, String key, Handler handler) {
+        int cursor = quote + 1;
+        while (cursor < end && buf[cursor] != '\'' && buf[cursor] != '\n') cursor++;
+        if (cursor >= end || buf[cursor] != '\'') {
+            int valueEnd = trimEnd(buf, quote, cursor);
+            handler.onEntry(key, new String(buf, quote, valueEnd - quote), quote - base, valueEnd - base);
+            return skipLine(buf, cursor, end);
+        }
+        handler.onEntry(key, new String(buf, quote + 1, cursor - quote - 1), quote - base, cursor + 1 - base);
+        return skipLine(buf, cursor + 1, end);
+    }
+
+    /**
+     * Arrays are handed over as their raw {@code [...]} text, matching what the old loader stored.
+     * Multi-line arrays are folded onto one line and their comments dropped.
+     */
+    private int readArray(char[] buf, int open, int end, String key, Handler handler) {
+        int cursor = open;
+        int depth = 0;
+        boolean multiline = false;
+        boolean closed = false;
+
+        while (cursor < end) {
+            char c = buf[cursor];
+            if (c == '"' || c == '\'') {
+                int close = cursor + 1;
+                while (close < end && buf[close] != c && buf[close] != '\n') {
+                    if (c == '"' && escapes && buf[close] == '\\') close++;
+                    close++;
+                }
+                close = Math.min(close + 1, end);
+                if (multiline) {
+                    for (int i = cursor; i < close; i++) append(buf[i]);
+                }
+                cursor = close;
+                continue;
+            }
+            if (c == '#' || c == '\n' || c == '\r') {
+                if (!multiline) {
+                    multiline = true;
+                    copyToScratch(buf, open, trimEnd(buf, open, cursor));
+                }
+                if (c == '#') {
+                    cursor = skipComment(buf, cursor, end);
+                } else {
+                    if (c == '\n') append(' ');
+                    cursor++;
+                }
+                continue;
+            }
+
+            if (multiline) append(c);
+            cursor++;
+
+            if (c == '[') {
+                depth++;
+            } else if (c == ']' && --depth == 0) {
+                closed = true;
+                break;
+            }
+        }
+
+        if (!closed) {
+            // Unbalanced brackets, fall back to the raw line instead of swallowing the rest of the file
+            int lineEnd = skipComment(buf, open, end);
+            int valueEnd = trimEnd(buf, open, lineEnd);
+            handler.onEntry(key, new String(buf, open, valueEnd - open), open - base, valueEnd - base);
+            return skipLine(buf, lineEnd, end);
+        }
+
+        String value = multiline ? new String(scratch, 0, scratchLength) : new String(buf, open, cursor - open);
+        handler.onEntry(key, value, open - base, cursor - base);
+        return skipLine(buf, cursor, end);
+    }
+
+    private void copyToScratch(char[] buf, int from, int to) {
+        ensureScratchCapacity(to - from);
+        System.arraycopy(buf, from, scratch, 0, to - from);
+        scratchLength = to - from;
+    }
+
+    private void append(char c) {
+        ensureScratchCapacity(scratchLength + 1);
+        scratch[scratchLength++] = c;
+    }
+
+    private static int skipBlank(char[] buf, int pos, int end) {
+        while (pos < end) {
+            char c = buf[pos];
+            if (c != ' ' && c != '\t' && c != '\r' && c != '\uFEFF') break;
+            pos++;
+        }
+        return pos;
+    }
+
+    private static int skipComment(char[] buf, int pos, int end) {
+        while (pos < end && buf[pos] != '\n') pos++;
+        return pos;
+    }
+
+    private static int skipLine(char[] buf, int pos, int end) {
+        while (pos < end && buf[pos] != '\n') pos++;
+        return pos < end ? pos + 1 : end;
+    }
+
+    private static int trimEnd(char[] buf, int start, int end) {
+        while (end > start && (buf[end - 1] == ' ' || buf[end - 1] == '\t' || buf[end - 1] == '\r')) end--;
+        return end;
+    }
+
+    private void ensureKeyCapacity(int capacity) {
+        if (capacity > keyBuffer.length) {
+            keyBuffer = Arrays.copyOf(keyBuffer, Math.max(capacity, keyBuffer.length * 2));
+        }
+    }
+
+    private void ensureScratchCapacity(int capacity) {
+        if (capacity > scratch.length) {
+            scratch = Arrays.copyOf(scratch, Math.max(capacity, scratch.length * 2));
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package me.zcraft.tc.config;
+
+import me.zcraft.tc.config.binder.BoundMember;
+import me.zcraft.tc.config.binder.BoundSection;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * What the config screen of a {@link TritiumConfig} shows: its categories, subcategories and entries with their
+ * translation keys, types, ranges and defaults. Built once per config from the bound schema, so opening a screen
+ * only binds the current values to it. The contents of a subcategory are resolved the first time they are needed.
+ */
+public final class ConfigUiSchema {
+    private final List<Section> categories;
+
+    private ConfigUiSchema(List<Section> categories) {
+        this.categories = categories;
+    }
+
+    static ConfigUiSchema build(String modId, BoundSection root, Map<String, Object> defaults, ValidationPlan plan) {
+        Context context = new Context(modId, defaults, plan);
+        List<Section> categories = new ArrayList<>();
+        for (BoundMember member : root.getMembers()) {
+            if (member instanceof BoundSection && hasEntries((BoundSection) member)) {
+                BoundSection section = (BoundSection) member;
+                categories.add(new Section(context, section, section.getName(),
+                        "config." + modId + ".category." + section.getName()));
+            }
+        }
+        return new ConfigUiSchema(Collections.unmodifiableList(categories));
+    }
+
+    /**
+     * Top-level sections that have at least one entry, in declaration order.
+     */
+    public List<Section> getCategories() {
+        return categories;
+    }
+
+    private static boolean hasEntries(BoundSection section) {
+        for (BoundMember member : section.getMembers()) {
+            if (member instanceof BoundSection ? hasEntries((BoundSection) member) : isEditable(member.getType())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Types the screen has an editor for.
+     */
+    private static boolean isEditable(Class<?> type) {
+        return type == boolean.class || type == Boolean.class
+                || type == int.class || type == Integer.class
+                || type == double.class || type == Double.class
+                || type == String.class || type.isEnum() || List.class.isAssignableFrom(type);
+    }
+
+    public abstract static class Node {
+        private final String translationKey;
+
+        private Node(String translationKey) {
+            this.translationKey = translationKey;
+        }
+
+        public String getTranslationKey() {
+            return translationKey;
+        }
+    }
+
+    /**
+     * A category or subcategory.
+     */
+    public static final class Section extends Node {
+        private final Context context;
+        private final BoundSection section;
+        private final String topSection;
+        private volatile List<Node> nodes;
+
+        private Section(Context context, BoundSection section, String topSection, String translationKey) {
+            super(translationKey);
+            this.context = context;
+            this.section = section;
+            this.topSection = topSection;
+        }
+
+        public String getPath() {
+            return section.getPath();
+        }
+
+        /**
+         * Entries and subcategories in declaration order.
+         */
+        public List<Node> getNodes() {
+            List<Node> result = nodes;
+            if (result == null) {
+                // Built from immutable data, so two threads racing here produce equal lists
+                result = Collections.unmodifiableList(context.nodesOf(section, topSection));
+                nodes = result;
+            }
+            return result;
+        }
+    }
+
+    public static final class Entry extends Node {
+        private final String path;
+        private final Class<?> type;
+        private final String tooltipKey;
+        private final Object defaultValue;
+        private final double[] range;
+
+        private Entry(String path, Class<?> type, String translationKey, Object defaultValue, double[] range) {
+            super(translationKey);
+            this.path = path;
+            this.type = type;
+            this.tooltipKey = translationKey + ".tooltip";
+            this.defaultValue = defaultValue;
+            this.range = range;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public Class<?> getType() {
+            return type;
+        }
+
+        public String getTooltipKey() {
+            return tooltipKey;
+        }
+
+        public Object getDefaultValue() {
+            return defaultValue;
+        }
+
+        public boolean hasRange() {
+            return range != null;
+        }
+
+        public double getMin() {
+            return range != null ? range[0] : Double.NEGATIVE_INFINITY;
+        }
+
+        public double getMax() {
+            return range != null ? range[1] : Double.POSITIVE_INFINITY;
+        }
+    }
+
+    private static final class Context {
+        private final String modId;
+        private final Map<String, Object> defaults;
+        private final ValidationPlan plan;
+
+        private Context(String modId, Map<String, Object> defaults, ValidationPlan plan) {
+            this.modId = modId;
+            this.defaults = defaults;
+            this.plan = plan;
+        }
+
+        List<Node> nodesOf(BoundSection section, String topSection) {
+            List<Node> nodes = new ArrayList<>(section.getMembers().size());
+            for (BoundMember member : section.getMembers()) {
+                String key = translationKey(member.getPath(), topSection);
+                if (member instanceof BoundSection) {
+                    if (hasEntries((BoundSection) member)) {
+                        nodes.add(new Section(this, (BoundSection) member, topSection, key));
+                    }
+                } else if (isEditable(member.getType())) {
+                    nodes.add(new Entry(member.getPath(), member.getType(), key,
+                            defaults.get(member.getPath()), plan.getRange(member.getPath())));
+                }
+            }
+            return nodes;
+        }
+
+        /**
+         * {@code config.<modid>.<section>.<rest>}, with the dots of the path below the top section replaced.
+         */
+        private String translationKey(String path, String topSection) {
+            return "config." + modId + "." + topSection + "." + path.substring(topSection.length() + 1).replace('.', '_');
+        }
+    }
+}
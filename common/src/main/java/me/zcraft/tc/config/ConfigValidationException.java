@@ -0,0 +1,17 @@
+package me.zcraft.tc.config;
+
+/**
+ * A config value that breaks its {@code @Range} or {@code @Validation} rule.
+ */
+public class ConfigValidationException extends IllegalArgumentException {
+    private final String path;
+
+    public ConfigValidationException(String path, String message) {
+        super(message);
+        this.path = path;
+    }
+
+    public String getPath() {
+        return path;
+    }
+}
@@ -1,43 +1,59 @@
 package me.zcraft.tc.config;
 
+import java.util.function.LongSupplier;
 import java.util.function.Supplier;
 
+/**
+ * Cached view of a config value.
+ * <p>
+ * The cached value is recomputed only when the owning config's generation changes (i.e. after a real reload),
+ * or, for values created with a refresh interval, once that interval has elapsed.
+ */
 public class ConfigValue<T> implements Supplier<T> {
+    private static final LongSupplier NO_GENERATION = () -> 0L;
+    private static final long DEFAULT_REFRESH_INTERVAL_MS = 3000;
+
     private final Supplier<T> valueSupplier;
-    private final long cacheDuration;
+    private final LongSupplier generationSource;
+    private final long refreshIntervalMs;
     private final Object lock = new Object();
     private T cachedValue;
     private long lastUpdateTime;
+    private volatile long cachedGeneration;
+    private ConfigMetrics metrics;
 
+    /**
+     * A value without a generation source, recomputed every 3 seconds.
+     */
     public ConfigValue(Supplier<T> valueSupplier) {
-        this(valueSupplier, 3000);
+        this(valueSupplier, DEFAULT_REFRESH_INTERVAL_MS);
+    }
+
+    public ConfigValue(Supplier<T> valueSupplier, long refreshIntervalMs) {
+        this(valueSupplier, NO_GENERATION, refreshIntervalMs);
     }
 
-    public ConfigValue(Supplier<T> valueSupplier, long cacheDurationMs) {
+    public ConfigValue(Supplier<T> valueSupplier, LongSupplier generationSource) {
+        this(valueSupplier, generationSource, 0);
+    }
+
+    public ConfigValue(Supplier<T> valueSupplier, LongSupplier generationSource, long refreshIntervalMs) {
         this.valueSupplier = valueSupplier;
-        this.cacheDuration = cacheDurationMs;
-        this.cachedValue = valueSupplier.get();
-        this.lastUpdateTime = System.currentTimeMillis();
+        this.generationSource = generationSource;
+        this.refreshIntervalMs = refreshIntervalMs;
+        // Never equal to a real generation, so the first read computes the value
+        this.cachedGeneration = Long.MIN_VALUE;
     }
 
     @Override
     public T get() {
-        long currentTime = System.currentTimeMillis();
-        if (currentTime - lastUpdateTime > cacheDuration) {
-            synchronized (lock) {
-                if (currentTime - lastUpdateTime > cacheDuration) {
-                    cachedValue = valueSupplier.get();
-                    lastUpdateTime = currentTime;
-                }
-            }
-        }
+        ensureCurrent();
         return cachedValue;
     }
 
     public void refresh() {
         synchronized (lock) {
-            cachedValue = valueSupplier.get();
-            lastUpdateTime = System.currentTimeMillis();
+            update(generationSource.getAsLong());
         }
     }
 
@@ -48,4 +64,49 @@ public class ConfigValue<T> implements Supplier<T> {
     public long getCacheAge() {
         return System.currentTimeMillis() - lastUpdateTime;
     }
-}
\ No newline at end of file
+
+    /**
+     * Recomputes the cached state if the config was reloaded or the refresh interval elapsed. Allocation free
+     * when nothing changed, so subclasses can call it from their primitive getters.
+     */
+    protected final void ensureCurrent() {
+        long generation = generationSource.getAsLong();
+        if (generation != cachedGeneration || (refreshIntervalMs > 0 && isExpired())) {
+            synchronized (lock) {
+                if (generation != cachedGeneration || (refreshIntervalMs > 0 && isExpired())) {
+                    update(generation);
+                }
+            }
+        } else if (ConfigMetrics.TRACK_VALUE_READS && metrics != null) {
+            metrics.valueHit();
+        }
+    }
+
+    /**
+     * Set once by the owning {@link TritiumConfig} before the value is handed out.
+     */
+    void bindMetrics(ConfigMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Pulls a fresh value from the supplier. Subclasses caching extra state override this and call super.
+     */
+    protected void recompute() {
+        cachedValue = valueSupplier.get();
+    }
+
+    private boolean isExpired() {
+        return System.currentTimeMillis() - lastUpdateTime > refreshIntervalMs;
+    }
+
+    private void update(long generation) {
+        recompute();
+        if (metrics != null) {
+            metrics.valueRefreshed();
+        }
+        lastUpdateTime = System.currentTimeMillis();
+        // Volatile write last, so readers that observe the generation also observe the value
+        cachedGeneration = generation;
+    }
+}
@@ -0,0 +1,25 @@
+package me.zcraft.tc.config;
+
+/**
+ * 64-bit FNV-1a over the chars of a config file. Only used to tell whether content changed, not for security.
+ */
+public final class ContentHash {
+    private static final long OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long PRIME = 0x100000001b3L;
+
+    private ContentHash() {
+    }
+
+    public static long of(CharSequence text) {
+        return of(text, 0, text.length());
+    }
+
+    public static long of(CharSequence text, int start, int end) {
+        long hash = OFFSET_BASIS;
+        for (int i = start; i < end; i++) {
+            hash ^= text.charAt(i);
+            hash *= PRIME;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,33 @@
+package me.zcraft.tc.config;
+
+import java.util.function.DoubleSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * {@link ConfigValue} for double settings. {@link #getAsDouble()} reads a cached primitive and never boxes.
+ */
+public class DoubleConfigValue extends ConfigValue<Double> implements DoubleSupplier {
+    private final DoubleSupplier source;
+    private double cached;
+
+    public DoubleConfigValue(DoubleSupplier source, LongSupplier generationSource) {
+        this(source, generationSource, 0);
+    }
+
+    public DoubleConfigValue(DoubleSupplier source, LongSupplier generationSource, long refreshIntervalMs) {
+        super(source::getAsDouble, generationSource, refreshIntervalMs);
+        this.source = source;
+    }
+
+    @Override
+    public double getAsDouble() {
+        ensureCurrent();
+        return cached;
+    }
+
+    @Override
+    protected void recompute() {
+        cached = source.getAsDouble();
+        super.recompute();
+    }
+}
@@ -0,0 +1,33 @@
+package me.zcraft.tc.config;
+
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * {@link ConfigValue} for int settings. {@link #getAsInt()} reads a cached primitive and never boxes.
+ */
+public class IntConfigValue extends ConfigValue<Integer> implements IntSupplier {
+    private final IntSupplier source;
+    private int cached;
+
+    public IntConfigValue(IntSupplier source, LongSupplier generationSource) {
+        this(source, generationSource, 0);
+    }
+
+    public IntConfigValue(IntSupplier source, LongSupplier generationSource, long refreshIntervalMs) {
+        super(source::getAsInt, generationSource, refreshIntervalMs);
+        this.source = source;
+    }
+
+    @Override
+    public int getAsInt() {
+        ensureCurrent();
+        return cached;
+    }
+
+    @Override
+    protected void recompute() {
+        cached = source.getAsInt();
+        super.recompute();
+    }
+}
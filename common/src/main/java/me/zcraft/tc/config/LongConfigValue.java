@@ -0,0 +1,32 @@
+package me.zcraft.tc.config;
+
+import java.util.function.LongSupplier;
+
+/**
+ * {@link ConfigValue} for long settings. {@link #getAsLong()} reads a cached primitive and never boxes.
+ */
+public class LongConfigValue extends ConfigValue<Long> implements LongSupplier {
+    private final LongSupplier source;
+    private long cached;
+
+    public LongConfigValue(LongSupplier source, LongSupplier generationSource) {
+        this(source, generationSource, 0);
+    }
+
+    public LongConfigValue(LongSupplier source, LongSupplier generationSource, long refreshIntervalMs) {
+        super(source::getAsLong, generationSource, refreshIntervalMs);
+        this.source = source;
+    }
+
+    @Override
+    public long getAsLong() {
+        ensureCurrent();
+        return cached;
+    }
+
+    @Override
+    protected void recompute() {
+        cached = source.getAsLong();
+        super.recompute();
+    }
+}
@@ -0,0 +1,373 @@
+package me.zcraft.tc.config;
+
+import me.zcraft.tc.TritiumCommon;
+import me.zcraft.tc.annotation.ConfigVersion;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+
+/**
+ * Migration chain of a config class, compiled once: every version step is the {@link MigrationSteps} returned by
+ * {@code migrateFromV<n>()}, a custom {@code migrateFromV<n>(Map<String, String>)} transform, resolved to a method
+ * handle up front, or the built-in renames.
+ * <p>
+ * {@link #apply(ConfigParser)} runs the steps on the raw values of the loaded file and patches the parsed
+ * document in memory, so sections, comments and ordering are kept. Nothing is written until the migrated values
+ * were accepted and {@link Result#write(Path)} is called.
+ */
+public final class MigrationPlan {
+    static final String VERSION_KEY = "config_version";
+
+    private static final MethodType TRANSFORM_TYPE = MethodType.methodType(void.class, Map.class);
+    private static final ClassValue<MigrationPlan> PLANS = new ClassValue<>() {
+        @Override
+        protected MigrationPlan computeValue(Class<?> configClass) {
+            return compile(configClass);
+        }
+    };
+
+    private final int currentVersion;
+    // Index i holds the step from version i + 1 to i + 2
+    private final List<List<Operation>> steps;
+
+    private MigrationPlan(int currentVersion, List<List<Operation>> steps) {
+        this.currentVersion = currentVersion;
+        this.steps = steps;
+    }
+
+    public static MigrationPlan forClass(Class<?> configClass) {
+        return PLANS.get(configClass);
+    }
+
+    private static MigrationPlan compile(Class<?> configClass) {
+        ConfigVersion version = configClass.getAnnotation(ConfigVersion.class);
+        int currentVersion = version != null ? version.value() : 1;
+
+        List<List<Operation>> steps = new ArrayList<>();
+        for (int from = 1; from < currentVersion; from++) {
+            MigrationSteps declared = findSteps(configClass, from);
+            if (declared != null) {
+                steps.add(declared.getOperations());
+                continue;
+            }
+            MethodHandle custom = findTransform(configClass, from);
+            steps.add(custom != null ? List.of(new Transform(from, custom)) : defaultStep(from));
+        }
+        return new MigrationPlan(currentVersion, List.copyOf(steps));
+    }
+
+    private static MigrationSteps findSteps(Class<?> configClass, int fromVersion) {
+        Method method;
+        try {
+            method = configClass.getMethod("migrateFromV" + fromVersion);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+        if (!Modifier.isStatic(method.getModifiers()) || method.getReturnType() != MigrationSteps.class) {
+            throw new IllegalStateException("migrateFromV" + fromVersion + "() of " + configClass.getName()
+                    + " must be static and return MigrationSteps");
+        }
+        try {
+            MigrationSteps steps = (MigrationSteps) method.invoke(null);
+            if (steps == null) {
+                throw new IllegalStateException("migrateFromV" + fromVersion + "() of " + configClass.getName() + " returned null");
+            }
+            return steps;
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Cannot access migrateFromV" + fromVersion + "() of " + configClass.getName(), e);
+        } catch (InvocationTargetException e) {
+            throw new IllegalStateException("migrateFromV" + fromVersion + "() of " + configClass.getName() + " failed", e.getCause());
+        }
+    }
+
+    private static MethodHandle findTransform(Class<?> configClass, int fromVersion) {
+        try {
+            Method method = configClass.getMethod("migrateFromV" + fromVersion, Map.class);
+            return MethodHandles.publicLookup().unreflect(method).asType(TRANSFORM_TYPE);
+        } catch (NoSuchMethodException e) {
+            return null;
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Cannot access migrateFromV" + fromVersion + "() of " + configClass.getName(), e);
+        }
+    }
+
+    /**
+     * Built-in renames for classes without their own step.
+     */
+    private static List<Operation> defaultStep(int fromVersion) {
+        switch (fromVersion) {
+            case 1:
+                return List.of(
+                        new Rename("rendering.enableCulling", "rendering.entityCulling.enableCulling"),
+                        new Rename("rendering.enableEntityCulling", "rendering.entityCulling.enableEntityCulling")
+                );
+            case 2:
+                return List.of(new Rename("old.setting", "new.setting"));
+            default:
+                return List.of();
+        }
+    }
+
+    public int getCurrentVersion() {
+        return currentVersion;
+    }
+
+    /**
+     * Version of the loaded file, 1 if it has no {@code config_version}.
+     */
+    public static int detectVersion(Map<String, String> values) {
+        String version = values.get(VERSION_KEY);
+        if (version == null) return 1;
+        try {
+            return Integer.parseInt(version.trim());
+        } catch (NumberFormatException e) {
+            TritiumCommon.LOG.warn("Invalid config_version '{}', assuming version 1", version);
+            return 1;
+        }
+    }
+
+    /**
+     * Migrates the values and document of a loaded parser in memory; the parser then reads the migrated values.
+     *
+     * @return the migration to write, or {@code null} if the file is already at the current version
+     * @throws RuntimeException if a migration step failed, the parser is left untouched then
+     */
+    public Result apply(ConfigParser parser) {
+        Map<String, String> original = Map.copyOf(parser.configValues);
+        int fileVersion = detectVersion(original);
+        if (fileVersion >= currentVersion) {
+            return null;
+        }
+
+        TritiumCommon.LOG.info("Migrating config from version {} to {}", fileVersion, currentVersion);
+        Map<String, String> values = new HashMap<>(original);
+        // New key -> key it had in the file, for the renames of declared steps
+        Map<String, String> origins = new HashMap<>();
+        for (int version = Math.max(fileVersion, 1); version < currentVersion; version++) {
+            for (Operation operation : steps.get(version - 1)) {
+                operation.apply(values, origins);
+            }
+        }
+        values.put(VERSION_KEY, String.valueOf(currentVersion));
+
+        ConfigDocument document = parser.getDocument();
+        // The migrated values are written with escapes, so an older document is converted first
+        ConfigDocument migrated = document != null ? rewrite(document.escapeStrings(), original, values, origins) : null;
+        parser.applyMigration(values, migrated);
+        return new Result(fileVersion, currentVersion, migrated);
+    }
+
+    /**
+     * Patches the document from the difference between the original and migrated values. Keys renamed within
+     * their section are renamed in place; keys moved to another section are removed and added there. Keys that
+     * appear without a recorded rename are added as new lines.
+     */
+    private static ConfigDocument rewrite(ConfigDocument document, Map<String, String> original,
+                                          Map<String, String> values, Map<String, String> origins) {
+        ConfigDocument.Patch patch = document.patch();
+        Set<String> reused = new HashSet<>();
+        for (Map.Entry<String, String> entry : values.entrySet()) {
+            String key = entry.getKey();
+            String value = entry.getValue();
+            String before = original.get(key);
+            if (before != null) {
+                if (!before.equals(value)) {
+                    patch.replace(key, literal(value));
+                }
+                continue;
+            }
+
+            String origin = origins.get(key);
+            boolean keepLiteral = origin != null && value.equals(original.get(origin));
+            String section = ConfigParser.sectionOf(key);
+            if (origin != null && !values.containsKey(origin) && document.contains(origin)
+                    && section.equals(ConfigParser.sectionOf(origin)) && reused.add(origin)) {
+                patch.move(origin, key, relativeKey(key), keepLiteral ? null : literal(value));
+                continue;
+            }
+            String text = keepLiteral && document.contains(origin) ? document.getRawValue(origin) : literal(value);
+            patch.insert(section, key, relativeKey(key) + " = ", text);
+        }
+
+        for (String key : original.keySet()) {
+            if (!values.containsKey(key) && !reused.contains(key) && document.contains(key)) {
+                patch.remove(key);
+            }
+        }
+        return patch.apply();
+    }
+
+    private static String relativeKey(String key) {
+        int dot = key.indexOf('.');
+        return dot < 0 ? key : key.substring(dot + 1);
+    }
+
+    /**
+     * TOML text for a raw value produced by a migration step. Booleans, numbers and arrays are written as they
+     * are, anything else as a string.
+     */
+    static String literal(String value) {
+        String trimmed = value.trim();
+        if (trimmed.equals("true") || trimmed.equals("false") || (trimmed.startsWith("[") && trimmed.endsWith("]"))) {
+            return trimmed;
+        }
+        try {
+            Long.parseLong(trimmed);
+            return trimmed;
+        } catch (NumberFormatException e) {
+            // not an integer
+        }
+        try {
+            Double.parseDouble(trimmed);
+            if (!trimmed.isEmpty() && Character.isDigit(trimmed.charAt(trimmed.length() - 1))) {
+                return trimmed;
+            }
+        } catch (NumberFormatException e) {
+            // not a float
+        }
+        StringBuilder sb = new StringBuilder();
+        ConfigTokenizer.appendQuoted(sb, value);
+        return sb.toString();
+    }
+
+    /**
+     * A migrated config that has not been written yet.
+     */
+    public static final class Result {
+        private final int fromVersion;
+        private final int toVersion;
+        private final ConfigDocument document;
+
+        private Result(int fromVersion, int toVersion, ConfigDocument document) {
+            this.fromVersion = fromVersion;
+            this.toVersion = toVersion;
+            this.document = document;
+        }
+
+        public int getFromVersion() {
+            return fromVersion;
+        }
+
+        public int getToVersion() {
+            return toVersion;
+        }
+
+        /**
+         * The migrated file content, {@code null} if the parser had no document to migrate.
+         */
+        public ConfigDocument getDocument() {
+            return document;
+        }
+
+        /**
+         * Keeps the original file as {@code <name>.v<from>.bak} and replaces it with the migrated content in one
+         * atomic write.
+         */
+        public void write(Path configPath) throws IOException {
+            if (document == null) {
+                throw new IOException("No migrated document for " + configPath);
+            }
+            Path backup = configPath.resolveSibling(configPath.getFileName() + ".v" + fromVersion + ".bak");
+            Files.copy(configPath, backup, StandardCopyOption.REPLACE_EXISTING);
+            TritiumConfig.writeAtomically(configPath, document.getText().getBytes(StandardCharsets.UTF_8));
+            TritiumCommon.LOG.info("Config migrated from version {} to {}, original kept as {}",
+                    fromVersion, toVersion, backup.getFileName());
+        }
+    }
+
+    interface Operation {
+        void apply(Map<String, String> values, Map<String, String> origins);
+    }
+
+    static final class Rename implements Operation {
+        private final String from;
+        private final String to;
+
+        Rename(String from, String to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public void apply(Map<String, String> values, Map<String, String> origins) {
+            if (!values.containsKey(from) || values.containsKey(to)) return;
+
+            values.put(to, values.remove(from));
+            String origin = origins.remove(from);
+            origins.put(to, origin != null ? origin : from);
+            TritiumCommon.LOG.debug("Migrated config key: {} -> {}", from, to);
+        }
+    }
+
+    static final class Drop implements Operation {
+        private final String key;
+
+        Drop(String key) {
+            this.key = key;
+        }
+
+        @Override
+        public void apply(Map<String, String> values, Map<String, String> origins) {
+            if (values.remove(key) == null) return;
+
+            origins.remove(key);
+            TritiumCommon.LOG.debug("Dropped config key: {}", key);
+        }
+    }
+
+    static final class MapValue implements Operation {
+        private final String key;
+        private final UnaryOperator<String> function;
+
+        MapValue(String key, UnaryOperator<String> function) {
+            this.key = key;
+            this.function = function;
+        }
+
+        @Override
+        public void apply(Map<String, String> values, Map<String, String> origins) {
+            String value = values.get(key);
+            if (value != null) {
+                values.put(key, function.apply(value));
+            }
+        }
+    }
+
+    private static final class Transform implements Operation {
+        private final int fromVersion;
+        private final MethodHandle handle;
+
+        private Transform(int fromVersion, MethodHandle handle) {
+            this.fromVersion = fromVersion;
+            this.handle = handle;
+        }
+
+        @Override
+        public void apply(Map<String, String> values, Map<String, String> origins) {
+            try {
+                handle.invokeExact(values);
+            } catch (Throwable e) {
+                throw new RuntimeException("Custom migration from version " + fromVersion + " failed", e);
+            }
+            // Renames recorded earlier no longer hold if the step moved those keys
+            origins.keySet().retainAll(values.keySet());
+            TritiumCommon.LOG.debug("Applied migration from version {}", fromVersion);
+        }
+    }
+}
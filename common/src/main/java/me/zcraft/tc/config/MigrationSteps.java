@@ -0,0 +1,69 @@
+package me.zcraft.tc.config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+/**
+ * The steps of one version migration, declared by the config class instead of written as a transform:
+ * <pre>{@code
+ * public static MigrationSteps migrateFromV1() {
+ *     return MigrationSteps.builder()
+ *             .rename("general.old", "general.renamed")
+ *             .drop("general.gone")
+ *             .build();
+ * }
+ * }</pre>
+ * Renames are known to the plan as such, so a renamed key keeps its line, comments and formatting in the
+ * migrated file. A {@code migrateFromV<n>(Map<String, String>)} transform only leaves the values behind; keys it
+ * moved are written as new lines.
+ */
+public final class MigrationSteps {
+    private final List<MigrationPlan.Operation> operations;
+
+    private MigrationSteps(List<MigrationPlan.Operation> operations) {
+        this.operations = operations;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    List<MigrationPlan.Operation> getOperations() {
+        return operations;
+    }
+
+    public static final class Builder {
+        private final List<MigrationPlan.Operation> operations = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Moves the value of {@code from} to {@code to}, unless the file has no {@code from} or already has
+         * {@code to}. Both are full paths, e.g. {@code "general.moved"} to {@code "other.moved"}.
+         */
+        public Builder rename(String from, String to) {
+            operations.add(new MigrationPlan.Rename(from, to));
+            return this;
+        }
+
+        public Builder drop(String key) {
+            operations.add(new MigrationPlan.Drop(key));
+            return this;
+        }
+
+        /**
+         * Replaces the raw value of {@code key}, e.g. to scale a number. Nothing happens if the file has no
+         * {@code key}.
+         */
+        public Builder map(String key, UnaryOperator<String> function) {
+            operations.add(new MigrationPlan.MapValue(key, function));
+            return this;
+        }
+
+        public MigrationSteps build() {
+            return new MigrationSteps(List.copyOf(operations));
+        }
+    }
+}
@@ -1,91 +1,55 @@
 package me.zcraft.tc.config;
 
+import me.shedaniel.clothconfig2.api.AbstractConfigListEntry;
 import me.shedaniel.clothconfig2.api.ConfigBuilder;
 import me.shedaniel.clothconfig2.api.ConfigCategory;
 import me.shedaniel.clothconfig2.api.ConfigEntryBuilder;
 import me.shedaniel.clothconfig2.impl.builders.SubCategoryBuilder;
 import me.zcraft.tc.TritiumCommon;
-import me.zcraft.tc.annotation.Range;
-import me.zcraft.tc.annotation.SubCategory;
 import net.minecraft.client.gui.screens.Screen;
 import net.minecraft.network.chat.Component;
 
-import java.lang.reflect.Field;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 
+/**
+ * Builds the Cloth Config screen of a config from its cached {@link ConfigUiSchema}; opening a screen only binds
+ * the current snapshot values to the schema. The entries of a screen are collected on save and applied as one
+ * batch.
+ */
 public class TritiumAutoConfig {
     private final TritiumConfig config;
-    private final Map<String, FieldAccessor> fieldAccessors = new ConcurrentHashMap<>();
 
     public TritiumAutoConfig(TritiumConfig config) {
         this.config = config;
     }
 
-    private static Field findField(Class<?> clazz, String fieldName) {
-        try {
-            return clazz.getDeclaredField(fieldName);
-        } catch (NoSuchFieldException e) {
-            Class<?> superClass = clazz.getSuperclass();
-            if (superClass != null && superClass != Object.class) {
-                return findField(superClass, fieldName);
-            }
-            return null;
-        }
-    }
-
-    private static boolean hasConfigurableFields(Object section) {
-        if (section == null) return false;
-
-        try {
-            for (Field field : section.getClass().getDeclaredFields()) {
-                field.setAccessible(true);
-                if (field.isSynthetic()) continue;
-                // Non-subcategory f the section has configurable entries
-                if (!field.isAnnotationPresent(SubCategory.class)) {
-                    return true;
-                }
-                // Subcategory field: check recursively whether it contains configurable fields
-                Object subSection = field.get(section);
-                if (hasConfigurableFields(subSection)) {
-                    return true;
-                }
-            }
-        } catch (Exception e) {
-            return false;
-        }
-
-        return false;
-    }
-
     public Screen createConfigScreen(Screen parent) {
+        // Cloth calls every save consumer first and the saving runnable last
+        Map<String, Object> edits = new LinkedHashMap<>();
         ConfigBuilder builder = ConfigBuilder.create()
                 .setParentScreen(parent)
                 .setTitle(Component.translatable("config." + config.getModId() + ".title"))
                 .transparentBackground()
-                .setSavingRunnable(config::save);
+                .setSavingRunnable(() -> saveEdits(edits));
 
         ConfigEntryBuilder entryBuilder = builder.entryBuilder();
         boolean createdAnyCategory = false;
 
         try {
-            Object configObj = config.get();
-            Class<?> configClass = configObj.getClass();
-            initializeFieldAccessors(configObj);
-
-            for (Field sectionField : configClass.getDeclaredFields()) {
-                sectionField.setAccessible(true);
-                Object section = sectionField.get(configObj);
-                String sectionName = sectionField.getName();
-
-                if (section != null && hasConfigurableFields(section)) {
-                    ConfigCategory category = builder.getOrCreateCategory(
-                            Component.translatable("config." + config.getModId() + ".category." + sectionName)
-                    );
-                    createdAnyCategory = true;
-                    generateSectionEntries(entryBuilder, category, section, sectionName);
+            ConfigUiSchema schema = config.getUiSchema();
+            // One snapshot for the whole screen, so all entries show the same version
+            ConfigSnapshot values = config.snapshot();
+            for (ConfigUiSchema.Section section : schema.getCategories()) {
+                ConfigCategory category = builder.getOrCreateCategory(Component.translatable(section.getTranslationKey()));
+                createdAnyCategory = true;
+                for (ConfigUiSchema.Node node : section.getNodes()) {
+                    AbstractConfigListEntry<?> entry = createEntry(entryBuilder, node, values, edits);
+                    if (entry != null) {
+                        category.addEntry(entry);
+                    }
                 }
             }
         } catch (Exception e) {
@@ -100,366 +64,101 @@ public class TritiumAutoConfig {
         return builder.build();
     }
 
-    private void initializeFieldAccessors(Object config) throws Exception {
-        if (!fieldAccessors.isEmpty()) return;
-
-        for (Field sectionField : config.getClass().getDeclaredFields()) {
-            sectionField.setAccessible(true);
-            Object section = sectionField.get(config);
-            cacheFieldAccessorsRecursive(section, sectionField.getName());
-        }
-    }
-
-    private void cacheFieldAccessorsRecursive(Object section, String path) throws Exception {
-        if (section == null) return;
-
-        for (Field field : section.getClass().getDeclaredFields()) {
-            field.setAccessible(true);
-            String fullPath = path + "." + field.getName();
-
-            if (field.isAnnotationPresent(SubCategory.class)) {
-                Object subSection = field.get(section);
-                cacheFieldAccessorsRecursive(subSection, fullPath);
-            } else {
-                fieldAccessors.put(fullPath, new ReflectionFieldAccessor(field));
-            }
-        }
-    }
-
-    private void generateSectionEntries(ConfigEntryBuilder entryBuilder,
-                                        ConfigCategory category,
-                                        Object section,
-                                        String sectionName) {
-        if (section == null) return;
-
-        try {
-            for (Field field : section.getClass().getDeclaredFields()) {
-                field.setAccessible(true);
-
-                String fieldName = field.getName();
-                Object currentValue = field.get(section);
-                String translationKey = "config." + config.getModId() + "." + sectionName + "." + fieldName.replace('.', '_');
-
-                if (field.isAnnotationPresent(SubCategory.class)) {
-                    SubCategory subCat = field.getAnnotation(SubCategory.class);
-                    SubCategoryBuilder subCategoryBuilder = entryBuilder.startSubCategory(Component.translatable(translationKey));
-                    generateSubCategoryEntries(entryBuilder, subCategoryBuilder, currentValue, sectionName, fieldName);
-                    category.addEntry(subCategoryBuilder.build());
-                } else {
-                    String fullPath = sectionName + "." + fieldName;
-                    FieldAccessor accessor = fieldAccessors.get(fullPath);
-                    if (accessor != null) {
-                        generateFieldEntry(entryBuilder, category, accessor, currentValue, translationKey, fullPath);
-                    }
+    private AbstractConfigListEntry<?> createEntry(ConfigEntryBuilder entryBuilder, ConfigUiSchema.Node node, ConfigSnapshot values,
+                                                   Map<String, Object> edits) {
+        if (node instanceof ConfigUiSchema.Section) {
+            ConfigUiSchema.Section section = (ConfigUiSchema.Section) node;
+            SubCategoryBuilder subCategoryBuilder = entryBuilder.startSubCategory(Component.translatable(section.getTranslationKey()));
+            for (ConfigUiSchema.Node child : section.getNodes()) {
+                AbstractConfigListEntry<?> entry = createEntry(entryBuilder, child, values, edits);
+                if (entry != null) {
+                    subCategoryBuilder.add(entry);
                 }
             }
-        } catch (Exception e) {
-            TritiumCommon.LOG.error("Failed to generate entries for section: {}", sectionName, e);
+            return subCategoryBuilder.build();
         }
-    }
-
-    private void generateSubCategoryEntries(ConfigEntryBuilder entryBuilder,
-                                            SubCategoryBuilder subCategoryBuilder,
-                                            Object section,
-                                            String sectionName,
-                                            String path) {
-        if (section == null) return;
 
+        ConfigUiSchema.Entry entry = (ConfigUiSchema.Entry) node;
         try {
-            for (Field field : section.getClass().getDeclaredFields()) {
-                field.setAccessible(true);
-
-                String fieldName = field.getName();
-                Object currentValue = field.get(section);
-                String fullPath = path.isEmpty() ? fieldName : path + "." + fieldName;
-                // 修复：使用正确的路径格式
-                String accessorPath = sectionName + "." + path + "." + fieldName;
-                String translationKey = "config." + config.getModId() + "." + sectionName + "." + fullPath.replace('.', '_');
-
-                if (field.isAnnotationPresent(SubCategory.class)) {
-                    SubCategory subCat = field.getAnnotation(SubCategory.class);
-                    SubCategoryBuilder nestedSubCategoryBuilder = entryBuilder.startSubCategory(Component.translatable(translationKey));
-                    generateSubCategoryEntries(entryBuilder, nestedSubCategoryBuilder, currentValue, sectionName, fullPath);
-                    subCategoryBuilder.add(nestedSubCategoryBuilder.build());
-                } else {
-                    FieldAccessor accessor = fieldAccessors.get(accessorPath);
-                    if (accessor != null) {
-                        // 修复：传递正确的 accessorPath 给保存消费者
-                        generateSubCategoryFieldEntry(entryBuilder, subCategoryBuilder, accessor, currentValue, translationKey, accessorPath);
-                    }
-                }
-            }
+            return createFieldEntry(entryBuilder, entry, values.get(entry.getPath()), edits);
         } catch (Exception e) {
-            TritiumCommon.LOG.error("Failed to generate subcategory entries for section: {}", sectionName, e);
+            TritiumCommon.LOG.error("Failed to generate field entry: {}", entry.getPath(), e);
+            return null;
         }
     }
 
     @SuppressWarnings({"unchecked", "rawtypes"})
-    private void generateFieldEntry(ConfigEntryBuilder entryBuilder,
-                                    ConfigCategory category,
-                                    FieldAccessor accessor,
-                                    Object currentValue,
-                                    String translationKey,
-                                    String fullPath) {
-        Class<?> fieldType = accessor.getType();
-
-        try {
-            if (fieldType == boolean.class || fieldType == Boolean.class) {
-                category.addEntry(entryBuilder.startBooleanToggle(
-                                Component.translatable(translationKey),
-                                (Boolean) currentValue
-                        )
-                        .setDefaultValue((Boolean) accessor.getDefaultValue())
-                        .setTooltip(Component.translatable(translationKey + ".tooltip"))
-                        .setSaveConsumer(createSaveConsumer(fullPath))
-                        .build());
-
-            } else if (fieldType == int.class || fieldType == Integer.class) {
-                var intField = entryBuilder.startIntField(
-                                Component.translatable(translationKey),
-                                (Integer) currentValue
-                        )
-                        .setDefaultValue((Integer) accessor.getDefaultValue())
-                        .setTooltip(Component.translatable(translationKey + ".tooltip"))
-                        .setSaveConsumer(createSaveConsumer(fullPath));
-
-                Range range = accessor.getRangeAnnotation();
-                if (range != null) {
-                    intField.setMin((int) range.min()).setMax((int) range.max());
-                }
-
-                category.addEntry(intField.build());
-
-            } else if (fieldType == double.class || fieldType == Double.class) {
-                var doubleField = entryBuilder.startDoubleField(
-                                Component.translatable(translationKey),
-                                (Double) currentValue
-                        )
-                        .setDefaultValue((Double) accessor.getDefaultValue())
-                        .setTooltip(Component.translatable(translationKey + ".tooltip"))
-                        .setSaveConsumer(createSaveConsumer(fullPath));
-
-                Range range = accessor.getRangeAnnotation();
-                if (range != null) {
-                    doubleField.setMin(range.min()).setMax(range.max());
-                }
-
-                category.addEntry(doubleField.build());
-
-            } else if (fieldType == String.class) {
-                category.addEntry(entryBuilder.startStrField(
-                                Component.translatable(translationKey),
-                                (String) currentValue
-                        )
-                        .setDefaultValue((String) accessor.getDefaultValue())
-                        .setTooltip(Component.translatable(translationKey + ".tooltip"))
-                        .setSaveConsumer(createSaveConsumer(fullPath))
-                        .build());
-
-            } else if (List.class.isAssignableFrom(fieldType)) {
-                List<String> currentList = (List<String>) currentValue;
-
-                category.addEntry(entryBuilder.startStrList(
-                                Component.translatable(translationKey),
-                                currentList
-                        )
-                        .setDefaultValue((List<String>) accessor.getDefaultValue())
-                        .setTooltip(Component.translatable(translationKey + ".tooltip"))
-                        .setSaveConsumer(createSaveConsumer(fullPath))
-                        .build());
-
-            } else if (fieldType.isEnum()) {
-                category.addEntry(entryBuilder.startEnumSelector(
-                                Component.translatable(translationKey),
-                                (Class<Enum>) fieldType,
-                                (Enum) currentValue
-                        )
-                        .setDefaultValue((Enum) accessor.getDefaultValue())
-                        .setTooltip(Component.translatable(translationKey + ".tooltip"))
-                        .setSaveConsumer(createSaveConsumer(fullPath))
-                        .build());
+    private AbstractConfigListEntry<?> createFieldEntry(ConfigEntryBuilder entryBuilder, ConfigUiSchema.Entry entry, Object currentValue,
+                                                        Map<String, Object> edits) {
+        Class<?> fieldType = entry.getType();
+        Component name = Component.translatable(entry.getTranslationKey());
+        Component tooltip = Component.translatable(entry.getTooltipKey());
+
+        if (fieldType == boolean.class || fieldType == Boolean.class) {
+            return entryBuilder.startBooleanToggle(name, (Boolean) currentValue)
+                    .setDefaultValue((Boolean) entry.getDefaultValue())
+                    .setTooltip(tooltip)
+                    .setSaveConsumer(createSaveConsumer(entry.getPath(), edits))
+                    .build();
+
+        } else if (fieldType == int.class || fieldType == Integer.class) {
+            var intField = entryBuilder.startIntField(name, (Integer) currentValue)
+                    .setDefaultValue((Integer) entry.getDefaultValue())
+                    .setTooltip(tooltip)
+                    .setSaveConsumer(createSaveConsumer(entry.getPath(), edits));
+            if (entry.hasRange()) {
+                intField.setMin((int) entry.getMin()).setMax((int) entry.getMax());
             }
-        } catch (Exception e) {
-            TritiumCommon.LOG.error("Failed to generate field entry: {}", fullPath, e);
-        }
-    }
-
-    @SuppressWarnings({"unchecked", "rawtypes"})
-    private void generateSubCategoryFieldEntry(ConfigEntryBuilder entryBuilder,
-                                               SubCategoryBuilder subCategoryBuilder,
-                                               FieldAccessor accessor,
-                                               Object currentValue,
-                                               String translationKey,
-                                               String accessorPath) {  // 修复：参数名改为 accessorPath
-        Class<?> fieldType = accessor.getType();
-
-        try {
-            if (fieldType == boolean.class || fieldType == Boolean.class) {
-                subCategoryBuilder.add(entryBuilder.startBooleanToggle(
-                                Component.translatable(translationKey),
-                                (Boolean) currentValue
-                        )
-                        .setDefaultValue((Boolean) accessor.getDefaultValue())
-                        .setTooltip(Component.translatable(translationKey + ".tooltip"))
-                        .setSaveConsumer(createSaveConsumer(accessorPath))  // 修复：使用 accessorPath
-                        .build());
-
-            } else if (fieldType == int.class || fieldType == Integer.class) {
-                var intField = entryBuilder.startIntField(
-                                Component.translatable(translationKey),
-                                (Integer) currentValue
-                        )
-                        .setDefaultValue((Integer) accessor.getDefaultValue())
-                        .setTooltip(Component.translatable(translationKey + ".tooltip"))
-                        .setSaveConsumer(createSaveConsumer(accessorPath));  // 修复：使用 accessorPath
-
-                Range range = accessor.getRangeAnnotation();
-                if (range != null) {
-                    intField.setMin((int) range.min()).setMax((int) range.max());
-                }
-
-                subCategoryBuilder.add(intField.build());
-
-            } else if (fieldType == double.class || fieldType == Double.class) {
-                var doubleField = entryBuilder.startDoubleField(
-                                Component.translatable(translationKey),
-                                (Double) currentValue
-                        )
-                        .setDefaultValue((Double) accessor.getDefaultValue())
-                        .setTooltip(Component.translatable(translationKey + ".tooltip"))
-                        .setSaveConsumer(createSaveConsumer(accessorPath));  // 修复：使用 accessorPath
-
-                Range range = accessor.getRangeAnnotation();
-                if (range != null) {
-                    doubleField.setMin(range.min()).setMax(range.max());
-                }
-
-                subCategoryBuilder.add(doubleField.build());
-
-            } else if (fieldType == String.class) {
-                subCategoryBuilder.add(entryBuilder.startStrField(
-                                Component.translatable(translationKey),
-                                (String) currentValue
-                        )
-                        .setDefaultValue((String) accessor.getDefaultValue())
-                        .setTooltip(Component.translatable(translationKey + ".tooltip"))
-                        .setSaveConsumer(createSaveConsumer(accessorPath))  // 修复：使用 accessorPath
-                        .build());
-
-            } else if (List.class.isAssignableFrom(fieldType)) {
-                List<String> currentList = (List<String>) currentValue;
-
-                subCategoryBuilder.add(entryBuilder.startStrList(
-                                Component.translatable(translationKey),
-                                currentList
-                        )
-                        .setDefaultValue((List<String>) accessor.getDefaultValue())
-                        .setTooltip(Component.translatable(translationKey + ".tooltip"))
-                        .setSaveConsumer(createSaveConsumer(accessorPath))  // 修复：使用 accessorPath
-                        .build());
-
-            } else if (fieldType.isEnum()) {
-                subCategoryBuilder.add(entryBuilder.startEnumSelector(
-                                Component.translatable(translationKey),
-                                (Class<Enum>) fieldType,
-                                (Enum) currentValue
-                        )
-                        .setDefaultValue((Enum) accessor.getDefaultValue())
-                        .setTooltip(Component.translatable(translationKey + ".tooltip"))
-                        .setSaveConsumer(createSaveConsumer(accessorPath))  // 修复：使用 accessorPath
-                        .build());
+            return intField.build();
+
+        } else if (fieldType == double.class || fieldType == Double.class) {
+            var doubleField = entryBuilder.startDoubleField(name, (Double) currentValue)
+                    .setDefaultValue((Double) entry.getDefaultValue())
+                    .setTooltip(tooltip)
+                    .setSaveConsumer(createSaveConsumer(entry.getPath(), edits));
+            if (entry.hasRange()) {
+                doubleField.setMin(entry.getMin()).setMax(entry.getMax());
             }
-        } catch (Exception e) {
-            TritiumCommon.LOG.error("Failed to generate subcategory field entry: {}", accessorPath, e);
-        }
+            return doubleField.build();
+
+        } else if (fieldType == String.class) {
+            return entryBuilder.startStrField(name, (String) currentValue)
+                    .setDefaultValue((String) entry.getDefaultValue())
+                    .setTooltip(tooltip)
+                    .setSaveConsumer(createSaveConsumer(entry.getPath(), edits))
+                    .build();
+
+        } else if (List.class.isAssignableFrom(fieldType)) {
+            return entryBuilder.startStrList(name, (List<String>) currentValue)
+                    .setDefaultValue((List<String>) entry.getDefaultValue())
+                    .setTooltip(tooltip)
+                    .setSaveConsumer(createSaveConsumer(entry.getPath(), edits))
+                    .build();
+
+        } else if (fieldType.isEnum()) {
+            return entryBuilder.startEnumSelector(name, (Class<Enum>) fieldType, (Enum) currentValue)
+                    .setDefaultValue((Enum) entry.getDefaultValue())
+                    .setTooltip(tooltip)
+                    .setSaveConsumer(createSaveConsumer(entry.getPath(), edits))
+                    .build();
+        }
+        return null;
     }
 
-    private <T> Consumer<T> createSaveConsumer(String fullPath) {
-        return value -> updateConfigValue(fullPath, value);
+    private <T> Consumer<T> createSaveConsumer(String fullPath, Map<String, Object> edits) {
+        return value -> edits.put(fullPath, value);
     }
 
-    private void updateConfigValue(String fullPath, Object value) {
+    private void saveEdits(Map<String, Object> edits) {
         try {
-            String[] pathParts = fullPath.split("\\.");
-            if (pathParts.length < 2) return;
-
-            FieldAccessor accessor = fieldAccessors.get(fullPath);
-            if (accessor == null) {
-                TritiumCommon.LOG.warn("No field accessor found for path: {}", fullPath);
-                return;
-            }
-
-            Object currentObj = config.get();
-            for (int i = 0; i < pathParts.length - 1; i++) {
-                Field field = findField(currentObj.getClass(), pathParts[i]);
-                if (field == null) {
-                    TritiumCommon.LOG.warn("Field not found: {} in path: {}", pathParts[i], fullPath);
-                    return;
-                }
-
-                field.setAccessible(true);
-                Object nextObj = field.get(currentObj);
-                if (nextObj == null) {
-                    nextObj = field.getType().newInstance();
-                    field.set(currentObj, nextObj);
-                }
-                currentObj = nextObj;
-            }
-
-            accessor.setValue(currentObj, value);
-            config.save();
+            // One snapshot for the whole screen, validated as a whole instead of one entry at a time
+            config.setValues(edits);
+            config.scheduleSave();
 
         } catch (Exception e) {
-            TritiumCommon.LOG.error("Failed to update config value: {}", fullPath, e);
-        }
-    }
-
-    private interface FieldAccessor {
-        Object getValue(Object obj) throws Exception;
-
-        void setValue(Object obj, Object value) throws Exception;
-
-        Object getDefaultValue() throws Exception;
-
-        Class<?> getType();
-
-        Range getRangeAnnotation();
-    }
-
-    private static class ReflectionFieldAccessor implements FieldAccessor {
-        private final Field field;
-        private final Range range;
-
-        public ReflectionFieldAccessor(Field field) {
-            this.field = field;
-            this.field.setAccessible(true);
-            this.range = field.getAnnotation(Range.class);
-        }
-
-        @Override
-        public Object getValue(Object obj) throws Exception {
-            return field.get(obj);
-        }
-
-        @Override
-        public void setValue(Object obj, Object value) throws Exception {
-            field.set(obj, value);
-        }
-
-        @Override
-        public Object getDefaultValue() throws Exception {
-            Object defaultInstance = field.getDeclaringClass().newInstance();
-            return field.get(defaultInstance);
-        }
-
-        @Override
-        public Class<?> getType() {
-            return field.getType();
-        }
-
-        @Override
-        public Range getRangeAnnotation() {
-            return range;
+            TritiumCommon.LOG.error("Failed to update config values for mod: {}", config.getModId(), e);
+        } finally {
+            edits.clear();
         }
     }
-}
\ No newline at end of file
+}
@@ -1,44 +1,105 @@
 package me.zcraft.tc.config;
 
 import me.zcraft.tc.TritiumCommon;
-import me.zcraft.tc.annotation.ClientOnly;
-import me.zcraft.tc.annotation.Range;
-import me.zcraft.tc.annotation.SubCategory;
+import me.zcraft.tc.config.binder.BoundMember;
+import me.zcraft.tc.config.binder.BoundSection;
+import me.zcraft.tc.config.binder.BoundValue;
+import me.zcraft.tc.config.binder.ConfigBinder;
+import me.zcraft.tc.config.stats.ConfigPhase;
+import me.zcraft.tc.config.stats.ConfigStats;
+import me.zcraft.tc.config.stats.PhaseTimer;
 import me.zcraft.tc.config.watcher.ConfigFileWatcher;
 
 import java.io.IOException;
-import java.lang.invoke.MethodHandle;
-import java.lang.invoke.MethodHandles;
-import java.lang.reflect.Field;
+import java.lang.invoke.MutableCallSite;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 public class TritiumConfig {
     private static final Map<String, TritiumConfig> CONFIG_REGISTRY = new ConcurrentHashMap<>();
     private static final AtomicBoolean SHUTDOWN_HOOK_REGISTERED = new AtomicBoolean(false);
+    private static final boolean COMPILED_CACHE = Boolean.parseBoolean(System.getProperty("tritium.compiledCache", "true"));
+    private static final ExecutorService SAVE_EXECUTOR = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "Tritium-Config-Saver");
+        t.setDaemon(true);
+        return t;
+    });
 
     private final String modId;
     private final Class<?> configClass;
     private final Map<String, ConfigValue<?>> configCache = new ConcurrentHashMap<>();
-    private final Map<String, FieldAccessor> fieldAccessors = new ConcurrentHashMap<>();
+    private final Map<String, BoundValue> fieldAccessors = new ConcurrentHashMap<>();
+    // Values in static fields or in sections held by static fields, written in place instead of copied on write
+    private final Map<String, Consumer<Object>> staticSetters = new HashMap<>();
+    private final Map<String, ConfigHandle<?>> handles = new ConcurrentHashMap<>();
+    private final Map<String, Supplier<?>> valueReaders = new ConcurrentHashMap<>();
+    private Map<String, Object> defaults = Map.of();
     private final Object configLock = new Object();
-    private final AtomicReference<Object> configRef = new AtomicReference<>();
+    private final Object saveLock = new Object();
     private String configFileName;
     private boolean isClient = true;
     private boolean registered = false;
+    private boolean lazy = false;
+    // Whether the file has been read and bound; lazily registered configs do that on first access
+    private volatile boolean materialized = false;
     private ConfigParser configParser;
     private ConfigFileWatcher fileWatcher;
+    private volatile ConfigSnapshot snapshot;
+    private ConfigBinder<?> binder;
+    private BoundSection schema;
+    private ValidationPlan validationPlan;
+    // Every value is bound statically, e.g. ExampleConfigClass; applying values never copies a section then
+    private boolean staticSchema;
+    private MigrationPlan migrationPlan;
+    private volatile ConfigUiSchema uiSchema;
+    private CompiledConfigCache compiledCache;
+    private final ConfigStats stats;
+    private final ConfigMetrics metrics;
+    private final AtomicBoolean saveScheduled = new AtomicBoolean(false);
+    // What the config file is known to contain, written or loaded; replaced as a whole under configLock
+    private volatile FileState fileState = new FileState(0, Map.of(), null);
+    // Values received from a server and what those paths hold locally, both replaced as a whole under configLock
+    private volatile Map<String, Object> serverValues = Map.of();
+    private volatile Map<String, Object> localValues = Map.of();
+    private final List<BiConsumer<ConfigSnapshot, Set<String>>> changeListeners = new CopyOnWriteArrayList<>();
 
     public TritiumConfig(String modId, Class<?> configClass) {
         this.modId = modId;
         this.configClass = configClass;
         this.configFileName = modId + "_config";
+        this.stats = new ConfigStats(modId);
+        this.metrics = new ConfigMetrics(modId);
 
         // 检测客户端
         this.isClient = detectClientEnvironment();
@@ -61,6 +122,120 @@ public class TritiumConfig {
         return config;
     }
 
+    /**
+     * Registers many configs at once, e.g. for a whole modpack. Reading, migrating and validating the files runs
+     * in parallel; the configs are added to the registry afterwards, in the iteration order of {@code configs}.
+     * A failing config doesn't stop the others from being registered.
+     *
+     * @return the registered configs by mod id, in the iteration order of {@code configs}
+     * @throws ConfigRegistrationException after registering the rest, if any config failed
+     */
+    public static Map<String, TritiumConfig> registerAll(Map<String, Class<?>> configs) {
+        List<String> modIds = new ArrayList<>(configs.keySet());
+        List<Callable<TritiumConfig>> tasks = new ArrayList<>(modIds.size());
+        for (String modId : modIds) {
+            Class<?> configClass = configs.get(modId);
+            tasks.add(() -> {
+                if (CONFIG_REGISTRY.containsKey(modId)) {
+                    throw new IllegalStateException("Config already registered for mod: " + modId);
+                }
+                return new TritiumConfig(modId, configClass).register();
+            });
+        }
+
+        List<Future<TritiumConfig>> futures;
+        int threads = Math.max(1, Math.min(modIds.size(), Runtime.getRuntime().availableProcessors()));
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "Tritium-Config-Loader-" + threadCount.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            futures = executor.invokeAll(tasks);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while registering configs", e);
+        } finally {
+            executor.shutdown();
+        }
+
+        Map<String, TritiumConfig> registered = new LinkedHashMap<>();
+        Map<String, Throwable> failures = new LinkedHashMap<>();
+        for (int i = 0; i < modIds.size(); i++) {
+            String modId = modIds.get(i);
+            try {
+                TritiumConfig config = futures.get(i).get();
+                if (CONFIG_REGISTRY.putIfAbsent(modId, config) != null) {
+                    config.stop();
+                    throw new IllegalStateException("Config already registered for mod: " + modId);
+                }
+                registered.put(modId, config);
+            } catch (ExecutionException e) {
+                failures.put(modId, e.getCause());
+            } catch (InterruptedException e) {
+                // invokeAll has already waited for every task
+                Thread.currentThread().interrupt();
+                failures.put(modId, e);
+            } catch (RuntimeException e) {
+                failures.put(modId, e);
+            }
+        }
+
+        failures.forEach((modId, e) -> TritiumCommon.LOG.error("Failed to register config for mod: {}", modId, e));
+        TritiumCommon.LOG.info("Registered {} of {} configs", registered.size(), modIds.size());
+        if (!failures.isEmpty()) {
+            throw new ConfigRegistrationException(failures);
+        }
+        return Collections.unmodifiableMap(registered);
+    }
+
+    /**
+     * Like {@link #register(String, Class)}, but only records the schema and defaults. The config file is read,
+     * migrated and bound on the first access to a value, handle or snapshot of this config.
+     */
+    public static TritiumConfig registerLazy(String modId, Class<?> configClass) {
+        if (CONFIG_REGISTRY.containsKey(modId)) {
+            throw new IllegalStateException("Config already registered for mod: " + modId);
+        }
+
+        TritiumConfig config = new TritiumConfig(modId, configClass);
+        config.lazy = true;
+        config.register();
+        CONFIG_REGISTRY.put(modId, config);
+        return config;
+    }
+
+    /**
+     * Load and reload timings of every registered config, slowest startup first.
+     */
+    public static List<ConfigStats> getStats() {
+        List<ConfigStats> all = new ArrayList<>();
+        for (TritiumConfig config : CONFIG_REGISTRY.values()) {
+            all.add(config.stats);
+        }
+        all.sort(Comparator.comparingLong(ConfigStats::getStartupNanos).reversed());
+        return all;
+    }
+
+    /**
+     * Runtime metrics of every registered config in the Prometheus text format, ready to be served to a scraper.
+     */
+    public static String exportMetrics() {
+        List<ConfigMetrics> all = new ArrayList<>();
+        for (TritiumConfig config : new TreeMap<>(CONFIG_REGISTRY).values()) {
+            all.add(config.metrics);
+        }
+        return ConfigMetrics.toPrometheus(all);
+    }
+
+    /**
+     * Logs the runtime metrics of every registered config.
+     */
+    public static void logMetrics() {
+        new TreeMap<>(CONFIG_REGISTRY).values().forEach(config -> config.metrics.logSummary());
+    }
+
     public static TritiumConfig getConfig(String modId) {
         TritiumConfig config = CONFIG_REGISTRY.get(modId);
         if (config == null) {
@@ -82,25 +257,51 @@ public class TritiumConfig {
         return null;
     }
 
-    private static <T extends Number> T validateRange(Field field, T value, T defaultValue) {
-        Range range = field.getAnnotation(Range.class);
-        if (range == null) {
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Object convertValue(Object value, Class<?> targetType) {
+        if (value == null) return getTypeDefaultValue(targetType);
+        if (targetType.isInstance(value)) {
             return value;
         }
 
-        double numValue = value.doubleValue();
-        double min = range.min();
-        double max = range.max();
-
-        if (numValue < min || numValue > max) {
-            TritiumCommon.LOG.warn(
-                    "Config value {} = {} is out of range [{}, {}], using default: {}",
-                    field.getName(), numValue, min, max, defaultValue
-            );
-            return defaultValue;
+        try {
+            if (targetType == boolean.class || targetType == Boolean.class) {
+                if (value instanceof Boolean) return value;
+                if (value instanceof String) return Boolean.parseBoolean((String) value);
+                if (value instanceof Number) return ((Number) value).intValue() != 0;
+                return false;
+            } else if (targetType == int.class || targetType == Integer.class) {
+                if (value instanceof Integer) return value;
+                if (value instanceof Number) return ((Number) value).intValue();
+                if (value instanceof String) return Integer.parseInt((String) value);
+                return 0;
+            } else if (targetType == double.class || targetType == Double.class) {
+                if (value instanceof Double) return value;
+                if (value instanceof Number) return ((Number) value).doubleValue();
+                if (value instanceof String) return Double.parseDouble((String) value);
+                return 0.0;
+            } else if (targetType == long.class || targetType == Long.class) {
+                if (value instanceof Long) return value;
+                if (value instanceof Number) return ((Number) value).longValue();
+                if (value instanceof String) return Long.parseLong((String) value);
+                return 0L;
+            } else if (targetType == String.class) {
+                return value.toString();
+            } else if (targetType.isEnum()) {
+                if (value instanceof String) {
+                    try {
+                        return Enum.valueOf((Class<Enum>) targetType, ((String) value).trim().toUpperCase());
+                    } catch (IllegalArgumentException e) {
+                        TritiumCommon.LOG.warn("Invalid enum value '{}' for type {}, using first enum value", value, targetType.getSimpleName());
+                        return targetType.getEnumConstants()[0];
+                    }
+                }
+            }
+        } catch (Exception e) {
+            TritiumCommon.LOG.warn("Failed to convert value '{}' to type {}, using default", value, targetType.getSimpleName(), e);
         }
 
-        return value;
+        return getTypeDefaultValue(targetType);
     }
 
     private static boolean isSimpleType(Class<?> type) {
@@ -150,8 +351,10 @@ public class TritiumConfig {
 
     private void initializeConfigInstance() {
         try {
-            Object configInstance = configClass.newInstance();
-            configRef.set(configInstance);
+            binder = ConfigBinder.forClass(configClass);
+            schema = binder.bind(isClient);
+            Object configInstance = schema.newInstance();
+            snapshot = new ConfigSnapshot(0, Map.of(), configInstance);
         } catch (Exception e) {
             throw new RuntimeException("Failed to create config instance for mod: " + modId, e);
         }
@@ -173,83 +376,517 @@ public class TritiumConfig {
         }
 
         registered = true;
+        PhaseTimer timer = stats.start(ConfigPhase.REGISTER);
+        cacheFieldAccessors();
+        validationPlan = binder.getValidationPlan();
+        migrationPlan = MigrationPlan.forClass(configClass);
 
         try {
-            Object newConfig = rebuildConfigObject();
-            configRef.set(newConfig);
-
-            ConfigValidator.validateConfig(newConfig);
+            Object root = snapshot.getRoot();
+            Map<String, Object> values = new HashMap<>();
+            defaults.forEach((path, value) -> {
+                if (isSimpleType(fieldAccessors.get(path).getType())) {
+                    values.put(path, value);
+                }
+            });
+            PhaseTimer validation = stats.start(ConfigPhase.VALIDATE);
+            validationPlan.validate(values, root);
+            validation.end(values.size());
+            snapshot = new ConfigSnapshot(snapshot.getGeneration() + 1, values, root);
             TritiumCommon.LOG.info("Default configuration validation passed for mod: {}", modId);
         } catch (Exception e) {
             TritiumCommon.LOG.error("Default configuration validation failed for mod {}: {}", modId, e.getMessage());
             throw new RuntimeException("Invalid default configuration for mod: " + modId, e);
         }
 
-        cacheFieldAccessors();
+        createConfigValues();
+        timer.end(fieldAccessors.size());
+        if (lazy) {
+            TritiumCommon.LOG.info("Config registered lazily for mod: {} (environment: {})", modId, isClient ? "client" : "server");
+            return this;
+        }
+
         initializeConfigSystem();
         TritiumCommon.LOG.info("Config registered successfully for mod: {} (environment: {})", modId, isClient ? "client" : "server");
         return this;
     }
 
-    public void reload() {
+    private void ensureMaterialized() {
+        if (materialized || !registered) return;
+
         synchronized (configLock) {
-            Path configPath = getConfigPath();
+            if (!materialized) {
+                initializeConfigSystem();
+            }
+        }
+    }
 
+    /**
+     * Re-reads the file and applies only the values that differ from the current snapshot.
+     *
+     * @return the config paths whose value changed, empty if the file content made no difference
+     */
+    public Set<String> reload() {
+        ensureMaterialized();
+        synchronized (configLock) {
+            metrics.reloadTriggered();
+            long start = System.nanoTime();
+            PhaseTimer timer = stats.start(ConfigPhase.RELOAD);
+            Set<String> changed = Set.of();
             try {
-                configCache.values().forEach(ConfigValue::refresh);
-                configCache.clear();
+                changed = reloadValues();
+                metrics.reloadCompleted(System.nanoTime() - start);
+                return changed;
+            } catch (RuntimeException e) {
+                metrics.reloadFailed();
+                throw e;
+            } finally {
+                timer.end(changed.size());
+            }
+        }
+    }
+
+    private Set<String> reloadValues() {
+        Path configPath = getConfigPath();
+
+        try {
+            Function<String, Object> source = this::readParsedValue;
+            if (configParser != null) {
+                // After a compiled cache hit the parser has not read the file yet, so nothing can be kept
+                boolean fullLoad = !configParser.isLoaded();
+                CompiledConfigCache.SourceStamp stamp = readSourceStamp(configPath);
+                if (!loadParser()) {
+                    metrics.reloadSkipped();
+                    TritiumCommon.LOG.debug("Config file content unchanged, skipped reload for mod: {}", modId);
+                    return Set.of();
+                }
 
-                if (configParser != null) {
-                    configParser.load();
-                    if (!ConfigMigration.migrateConfig(configPath, configParser, configClass)) {
-                        throw new RuntimeException("Config migration failed");
+                Map<String, Object> values;
+                Set<String> sections;
+                Set<String> changed;
+                MigrationPlan.Result migration;
+                try {
+                    migration = migrate();
+
+                    // Paths in sections that didn't change keep their current value
+                    sections = fullLoad ? null : configParser.getChangedSections();
+                    if (!fullLoad) {
+                        ConfigSnapshot current = snapshot;
+                        source = path -> sections.contains(ConfigParser.sectionOf(path)) ? readParsedValue(path) : localValue(current, path);
                     }
+                    values = readValues(source);
+                    changed = applyValues(values);
+                } catch (RuntimeException e) {
+                    // The parser already took this content as loaded; without this, the next reload would keep
+                    // the rejected sections at their old values or skip the file as unchanged
+                    configParser.invalidate();
+                    throw e;
                 }
+                if (migration != null) {
+                    stamp = writeMigration(configPath, migration);
+                }
+                updateFileState(configParser.getContentHash(), configParser.getDocument(), values, sections);
+                storeCompiledCache(stamp, fileState.hash, withLocalValues(snapshot));
+                TritiumCommon.LOG.info("Configuration reloaded successfully for mod: {} ({} changed)", modId, changed.size());
+                return changed;
+            }
 
-                Object newConfig = rebuildConfigObject();
-                configRef.set(newConfig);
+            Set<String> changed = applyValues(readValues(source));
+            TritiumCommon.LOG.info("Configuration reloaded successfully for mod: {} ({} changed)", modId, changed.size());
+            return changed;
 
-                ConfigValidator.validateConfig(newConfig);
-                TritiumCommon.LOG.info("Configuration reloaded successfully for mod: {}", modId);
+        } catch (Exception e) {
+            TritiumCommon.LOG.error("Failed to reload configuration for mod: {}", modId, e);
+            throw new RuntimeException("Config reload failed", e);
+        }
+    }
 
-            } catch (Exception e) {
-                TritiumCommon.LOG.error("Failed to reload configuration for mod: {}", modId, e);
-                throw new RuntimeException("Config reload failed", e);
+    /**
+     * Changes a single value, e.g. from the config screen. Builds and publishes a new snapshot like a reload;
+     * call {@link #save()} afterwards to persist it.
+     */
+    public void setValue(String path, Object value) {
+        ensureMaterialized();
+        synchronized (configLock) {
+            ConfigSnapshot current = snapshot;
+            if (!current.contains(path)) {
+                throw new IllegalArgumentException("Unknown config path for mod " + modId + ": " + path);
             }
+            applyValues(readValues(p -> p.equals(path) ? value : localValue(current, p)));
         }
     }
 
+    /**
+     * Changes several values at once, e.g. everything edited on the config screen. They are validated together and
+     * published as one snapshot, so rules across fields only see the final state.
+     *
+     * @return the config paths whose value changed
+     */
+    public Set<String> setValues(Map<String, ?> values) {
+        ensureMaterialized();
+        synchronized (configLock) {
+            ConfigSnapshot current = snapshot;
+            for (String path : values.keySet()) {
+                if (!current.contains(path)) {
+                    throw new IllegalArgumentException("Unknown config path for mod " + modId + ": " + path);
+                }
+            }
+            if (values.isEmpty()) {
+                return Set.of();
+            }
+            return applyValues(readValues(p -> values.containsKey(p) ? values.get(p) : localValue(current, p)));
+        }
+    }
+
+    /**
+     * Overrides values with the ones a server sent, see {@link me.zcraft.tc.config.sync.ConfigSyncClient}. Server
+     * values are never saved; reloads and {@link #setValue} change the local value of such a path instead, which
+     * comes back with {@link #clearServerValues()}.
+     *
+     * @return the config paths whose value changed
+     */
+    public Set<String> applyServerValues(Map<String, Object> values) {
+        ensureMaterialized();
+        synchronized (configLock) {
+            ConfigSnapshot current = snapshot;
+            Map<String, Object> local = new HashMap<>(localValues);
+            for (String path : values.keySet()) {
+                if (!current.contains(path)) {
+                    throw new IllegalArgumentException("Unknown config path for mod " + modId + ": " + path);
+                }
+                local.putIfAbsent(path, current.get(path));
+            }
+
+            Map<String, Object> read = readValues(p -> values.containsKey(p) ? values.get(p) : current.get(p));
+            Set<String> changed = publish(read);
+            Map<String, Object> server = new HashMap<>(serverValues);
+            for (String path : values.keySet()) {
+                server.put(path, read.get(path));
+            }
+            serverValues = Collections.unmodifiableMap(server);
+            localValues = Collections.unmodifiableMap(local);
+            return changed;
+        }
+    }
+
+    /**
+     * Drops all server values, e.g. when leaving a server, and goes back to the local values.
+     *
+     * @return the config paths whose value changed
+     */
+    public Set<String> clearServerValues() {
+        synchronized (configLock) {
+            if (serverValues.isEmpty()) {
+                return Set.of();
+            }
+            ConfigSnapshot current = snapshot;
+            Map<String, Object> local = localValues;
+            Set<String> changed = publish(readValues(p -> local.containsKey(p) ? local.get(p) : current.get(p)));
+            serverValues = Map.of();
+            localValues = Map.of();
+            return changed;
+        }
+    }
+
+    /**
+     * Called with every published snapshot and the paths that changed in it, on the thread that changed them and
+     * while holding the config lock. Listeners must not block.
+     */
+    public void addChangeListener(BiConsumer<ConfigSnapshot, Set<String>> listener) {
+        changeListeners.add(listener);
+    }
+
+    public void removeChangeListener(BiConsumer<ConfigSnapshot, Set<String>> listener) {
+        changeListeners.remove(listener);
+    }
+
+    private Object localValue(ConfigSnapshot current, String path) {
+        Map<String, Object> local = localValues;
+        return local.containsKey(path) ? local.get(path) : current.get(path);
+    }
+
+    /**
+     * {@code current} with the local values in place of server values, what is written to the file and cache.
+     */
+    private ConfigSnapshot withLocalValues(ConfigSnapshot current) {
+        Map<String, Object> local = localValues;
+        if (local.isEmpty()) {
+            return current;
+        }
+        Map<String, Object> values = new HashMap<>(current.asMap());
+        values.putAll(local);
+        return new ConfigSnapshot(current.getGeneration(), values, current.getRoot());
+    }
+
+    /**
+     * Incremented by every published snapshot; {@link ConfigValue}s created by this config compare against it.
+     */
+    public long getGeneration() {
+        return snapshot().getGeneration();
+    }
+
+    /**
+     * Runtime counters of this config, see {@link #exportMetrics()}.
+     */
+    public ConfigMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Load, reload and save timings of this config, see {@link #getStats()}.
+     */
+    public ConfigStats getConfigStats() {
+        return stats;
+    }
+
+    /**
+     * The current consistent version of all values. Never blocks.
+     */
+    public ConfigSnapshot snapshot() {
+        ensureMaterialized();
+        return snapshot;
+    }
+
+    /**
+     * Returns the live value handle for a config path such as {@code "example.expl"}. Handles stay valid across
+     * reloads, so they can be kept in a field and read from hot code.
+     */
+    public ConfigValue<?> getValue(String path) {
+        ConfigValue<?> value = configCache.get(path);
+        if (value == null) {
+            throw new IllegalArgumentException("Unknown config path for mod " + modId + ": " + path);
+        }
+        return value;
+    }
+
+    public IntConfigValue getIntValue(String path) {
+        return getTypedValue(path, IntConfigValue.class);
+    }
+
+    public LongConfigValue getLongValue(String path) {
+        return getTypedValue(path, LongConfigValue.class);
+    }
+
+    public DoubleConfigValue getDoubleValue(String path) {
+        return getTypedValue(path, DoubleConfigValue.class);
+    }
+
+    public BooleanConfigValue getBooleanValue(String path) {
+        return getTypedValue(path, BooleanConfigValue.class);
+    }
+
+    /**
+     * Returns the constant-foldable handle for a config path, see {@link ConfigHandle}.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> ConfigHandle<T> getHandle(String path) {
+        return (ConfigHandle<T>) handles.computeIfAbsent(path, p -> {
+            BoundValue accessor = fieldAccessors.get(p);
+            if (accessor == null) {
+                throw new IllegalArgumentException("Unknown config path for mod " + modId + ": " + p);
+            }
+            return new ConfigHandle<>(p, accessor.getType(), snapshot().get(p));
+        });
+    }
+
+    /**
+     * Default value of a config path as declared in the config class, captured once at registration.
+     */
+    public Object getDefaultValue(String path) {
+        Object value = defaults.get(path);
+        if (value == null) {
+            BoundValue accessor = fieldAccessors.get(path);
+            return accessor != null ? getTypeDefaultValue(accessor.getType()) : null;
+        }
+        return value;
+    }
+
+    /**
+     * All defaults by config path. The map is immutable.
+     */
+    public Map<String, Object> getDefaults() {
+        return defaults;
+    }
+
+    private void updateHandles(ConfigSnapshot current, Set<String> changedPaths) {
+        if (handles.isEmpty()) return;
+
+        List<MutableCallSite> changed = new ArrayList<>();
+        for (String path : changedPaths) {
+            ConfigHandle<?> handle = handles.get(path);
+            MutableCallSite site = handle != null ? handle.update(current.get(path)) : null;
+            if (site != null) {
+                changed.add(site);
+            }
+        }
+        if (!changed.isEmpty()) {
+            MutableCallSite.syncAll(changed.toArray(new MutableCallSite[0]));
+            TritiumCommon.LOG.debug("Invalidated {} config handles for mod: {}", changed.size(), modId);
+        }
+    }
+
+    private <V extends ConfigValue<?>> V getTypedValue(String path, Class<V> valueType) {
+        ConfigValue<?> value = getValue(path);
+        if (!valueType.isInstance(value)) {
+            throw new IllegalArgumentException("Config path " + path + " of mod " + modId + " is not a " + valueType.getSimpleName());
+        }
+        return valueType.cast(value);
+    }
+
+    /**
+     * The layout of the config screen, built on first use and kept for the lifetime of this config.
+     */
+    public ConfigUiSchema getUiSchema() {
+        ConfigUiSchema ui = uiSchema;
+        if (ui == null) {
+            synchronized (configLock) {
+                if (!registered) {
+                    throw new IllegalStateException("Config for mod " + modId + " is not registered");
+                }
+                ui = uiSchema;
+                if (ui == null) {
+                    ui = ConfigUiSchema.build(modId, schema, defaults, validationPlan);
+                    uiSchema = ui;
+                }
+            }
+        }
+        return ui;
+    }
+
     @SuppressWarnings("unchecked")
     public <T> T get() {
-        return (T) configRef.get();
+        return (T) snapshot().getRoot();
     }
 
     public void stop() {
         if (fileWatcher != null) {
             fileWatcher.stop();
         }
+        if (saveScheduled.getAndSet(false)) {
+            save();
+        }
         configCache.clear();
         fieldAccessors.clear();
+        handles.clear();
     }
 
+    /**
+     * Writes the current snapshot to the config file now. The file is left alone if its content would not change.
+     */
     public void save() {
-        synchronized (configLock) {
-            Path configPath = getConfigPath();
+        ensureMaterialized();
+        synchronized (saveLock) {
+            long start = System.nanoTime();
+            PhaseTimer timer = stats.start(ConfigPhase.SAVE);
+            // Set once this save has written the file, which then differs from whatever a reload recorded since
+            boolean overwritten = false;
+            while (true) {
+                FileState base;
+                ConfigSnapshot current;
+                synchronized (configLock) {
+                    base = fileState;
+                    current = withLocalValues(snapshot);
+                }
 
-            try {
-                String configContent = generateConfigFile();
-                Files.write(configPath, configContent.getBytes());
+                // Serialized outside configLock, so saving never waits for a running reload
+                ConfigDocument document = currentDocument(base);
+                String configContent;
+                if (document != null) {
+                    // Only the changed values are rewritten, the rest of the file is kept as the user left it
+                    document = patchDocument(document.escapeStrings(), current, base.values);
+                    configContent = document.getText();
+                } else {
+                    configContent = generateConfigFile(current);
+                }
+                long hash = document != null ? document.getContentHash() : ContentHash.of(configContent);
+                if (hash == base.hash && !overwritten) {
+                    timer.end(current.asMap().size());
+                    metrics.saveSkipped();
+                    TritiumCommon.LOG.debug("Configuration unchanged, skipped saving for mod: {}", modId);
+                    return;
+                }
+                if (fileState != base) {
+                    // A reload read the file since; serializing again keeps what it read
+                    continue;
+                }
+
+                try {
+                    writeAtomically(getConfigPath(), configContent);
+                } catch (IOException e) {
+                    TritiumCommon.LOG.error("Failed to save configuration for mod: {}", modId, e);
+                    throw new RuntimeException("Config save failed", e);
+                }
+                if (fileWatcher != null) {
+                    fileWatcher.markSelfWrite();
+                }
+                FileState saved = new FileState(hash, current.asMap(),
+                        document != null ? document : ConfigDocument.parse(configContent));
+                synchronized (configLock) {
+                    if (fileState != base) {
+                        // A reload committed while the file was written, so the file no longer holds what it read.
+                        // Its values are published by now; writing again from its state puts them back on disk.
+                        overwritten = true;
+                        TritiumCommon.LOG.debug("Config reloaded during save, saving again for mod: {}", modId);
+                        continue;
+                    }
+                    fileState = saved;
+                }
+                storeCompiledCache(readSourceStamp(getConfigPath()), hash, current);
+                timer.end(current.asMap().size(), configContent.length());
+                metrics.saved(System.nanoTime() - start);
                 TritiumCommon.LOG.debug("Configuration saved for mod: {}", modId);
-            } catch (IOException e) {
-                TritiumCommon.LOG.error("Failed to save configuration for mod: {}", modId, e);
-                throw new RuntimeException("Config save failed", e);
+                return;
             }
         }
     }
 
+    /**
+     * Marks the config dirty and saves it on a background thread. Calls made before that save starts are
+     * coalesced into it, so saving a whole config screen writes the file at most once.
+     */
+    public void scheduleSave() {
+        if (saveScheduled.compareAndSet(false, true)) {
+            SAVE_EXECUTOR.execute(() -> {
+                if (!saveScheduled.getAndSet(false)) return;
+                try {
+                    save();
+                } catch (RuntimeException e) {
+                    // already logged by save()
+                }
+            });
+        }
+    }
+
+    /**
+     * Writes to a sibling temp file and moves it over the target, so readers never see a partial file.
+     */
+    private static void writeAtomically(Path path, String content) throws IOException {
+        writeAtomically(path, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static void writeAtomically(Path path, byte[] content) throws IOException {
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(content);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+        try {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
     private void cacheFieldAccessors() {
         try {
-            cacheFieldsRecursive(configClass, "");
+            Map<String, Object> defaultValues = new HashMap<>();
+            cacheFieldsRecursive(schema, snapshot.getRoot(), defaultValues);
+            defaults = Collections.unmodifiableMap(defaultValues);
+            bindStaticSetters(schema, null);
+            staticSchema = staticSetters.size() == fieldAccessors.size();
             TritiumCommon.LOG.debug("Cached {} field accessors for mod: {}", fieldAccessors.size(), modId);
         } catch (Exception e) {
             TritiumCommon.LOG.error("Failed to cache field accessors for mod: {}", modId, e);
@@ -258,136 +895,535 @@ public class TritiumConfig {
 
     private void initializeConfigSystem() {
         Path configPath = getConfigPath();
-        if (!Files.exists(configPath)) {
-            createDefaultConfig(configPath);
+        synchronized (configLock) {
+            PhaseTimer timer = stats.start(ConfigPhase.INITIALIZE);
+            long charCount = 0;
+            valueReaders.clear();
+            if (COMPILED_CACHE) {
+                compiledCache = new CompiledConfigCache(getCompiledCachePath(), CompiledConfigCache.schemaHash(
+                        configClass, migrationPlan.getCurrentVersion(), fieldAccessors, defaults, validationPlan));
+            }
+
+            String createdContent = Files.exists(configPath) ? null : createDefaultConfig(configPath);
+            CompiledConfigCache.Entry cached = createdContent == null && compiledCache != null
+                    ? compiledCache.read(configPath, fieldAccessors) : null;
+            if (createdContent != null) {
+                // The file was just written from the defaults, so there is nothing to read back or migrate
+                configParser = new ConfigParser(configPath, false);
+                charCount = createdContent.length();
+                Map<String, Object> values = readValues(defaults::get);
+                applyValues(values);
+                updateFileState(ContentHash.of(createdContent), null, values, null);
+                storeCompiledCache(readSourceStamp(configPath), fileState.hash, snapshot);
+            } else if (cached != null) {
+                // The file is parsed on the first reload only
+                configParser = new ConfigParser(configPath, false);
+                Map<String, Object> values = readValues(cached.values::get);
+                applyValues(values);
+                updateFileState(cached.contentHash, null, values, null);
+                TritiumCommon.LOG.debug("Loaded configuration for mod {} from compiled cache", modId);
+            } else {
+                CompiledConfigCache.SourceStamp stamp = readSourceStamp(configPath);
+                configParser = new ConfigParser(configPath, false);
+                loadParser();
+                charCount = configParser.getContentLength();
+
+                MigrationPlan.Result migration = migrate();
+                Map<String, Object> values = readValues(this::readParsedValue);
+                applyValues(values);
+                if (migration != null) {
+                    stamp = writeMigration(configPath, migration);
+                }
+                updateFileState(configParser.getContentHash(), configParser.getDocument(), values, null);
+                storeCompiledCache(stamp, fileState.hash, snapshot);
+            }
+            materialized = true;
+            timer.end(fieldAccessors.size(), charCount);
         }
-        configParser = new ConfigParser(configPath);
 
-        if (!ConfigMigration.migrateConfig(configPath, configParser, configClass)) {
-            throw new RuntimeException("Initial config migration failed");
+        fileWatcher = new ConfigFileWatcher(configPath, this::reload, metrics::watcherEvent);
+        fileWatcher.start();
+    }
+
+    private boolean loadParser() {
+        PhaseTimer timer = stats.start(ConfigPhase.PARSE);
+        boolean loaded = configParser.load();
+        timer.end(configParser.configValues.size(), configParser.getContentLength());
+        return loaded;
+    }
+
+    /**
+     * Migrates the loaded file in memory. The result is only written by {@link #writeMigration} once the
+     * migrated values were applied and validated.
+     *
+     * @return {@code null} if the file is already at the current version
+     */
+    private MigrationPlan.Result migrate() {
+        PhaseTimer timer = stats.start(ConfigPhase.MIGRATE);
+        try {
+            return migrationPlan.apply(configParser);
+        } catch (RuntimeException e) {
+            TritiumCommon.LOG.error("Config migration failed for mod: {}", modId, e);
+            throw new RuntimeException("Config migration failed", e);
+        } finally {
+            timer.end(configParser.configValues.size());
         }
+    }
 
-        Object newConfig = rebuildConfigObject();
-        configRef.set(newConfig);
+    /**
+     * @return the stamp of the migrated file
+     */
+    private CompiledConfigCache.SourceStamp writeMigration(Path configPath, MigrationPlan.Result migration) {
+        try {
+            migration.write(configPath);
+        } catch (IOException e) {
+            TritiumCommon.LOG.error("Failed to write migrated configuration for mod: {}", modId, e);
+            throw new RuntimeException("Config migration failed", e);
+        }
+        if (fileWatcher != null) {
+            fileWatcher.markSelfWrite();
+        }
+        return readSourceStamp(configPath);
+    }
 
-        fileWatcher = new ConfigFileWatcher(configPath, this::reload);
-        fileWatcher.start();
+    /**
+     * @return the modification time and size of the config file, or {@code null} if they can't be read
+     */
+    private static CompiledConfigCache.SourceStamp readSourceStamp(Path configPath) {
+        try {
+            return CompiledConfigCache.SourceStamp.read(configPath);
+        } catch (IOException e) {
+            return null;
+        }
     }
 
-    private Object rebuildConfigObject() {
+    /**
+     * Encodes {@code values} for the file state described by {@code stamp} and writes the cache in the background.
+     */
+    private void storeCompiledCache(CompiledConfigCache.SourceStamp stamp, long contentHash, ConfigSnapshot values) {
+        if (compiledCache == null || stamp == null) return;
+
+        byte[] encoded;
         try {
-            Object newConfig = configClass.newInstance();
-            configureObjectRecursive(newConfig, "");
-            ConfigValidator.validateConfig(newConfig);
-            TritiumCommon.LOG.debug("Configuration object rebuilt and validated for mod: {}", modId);
-            return newConfig;
-        } catch (Exception e) {
-            TritiumCommon.LOG.error("Failed to rebuild configuration object for mod: {}", modId, e);
-            throw new RuntimeException("Configuration rebuild failed", e);
+            encoded = compiledCache.encode(stamp, contentHash, values.asMap());
+        } catch (RuntimeException e) {
+            // The values are already published, a missing cache only costs the next start a parse
+            TritiumCommon.LOG.warn("Failed to encode config cache for mod: {}", modId, e);
+            return;
         }
+        SAVE_EXECUTOR.execute(() -> compiledCache.store(encoded));
     }
 
-    private void cacheFieldsRecursive(Class<?> clazz, String prefix) throws Exception {
-        MethodHandles.Lookup lookup = MethodHandles.lookup();
+    /**
+     * Records the file content just read, with the values read from it. Called under configLock.
+     *
+     * @param document the parsed content, {@code null} if it was not parsed
+     * @param sections the top-level sections the values were read for, {@code null} for all of them
+     */
+    private void updateFileState(long hash, ConfigDocument document, Map<String, Object> values, Set<String> sections) {
+        if (sections == null) {
+            fileState = new FileState(hash, Collections.unmodifiableMap(values), document);
+            return;
+        }
+
+        Map<String, Object> updated = new HashMap<>(fileState.values);
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            if (sections.contains(ConfigParser.sectionOf(entry.getKey()))) {
+                updated.put(entry.getKey(), entry.getValue());
+            }
+        }
+        fileState = new FileState(hash, Collections.unmodifiableMap(updated), document);
+    }
 
-        for (Field field : clazz.getDeclaredFields()) {
-            field.setAccessible(true);
-            String fullPath = prefix.isEmpty() ? field.getName() : prefix + "." + field.getName();
+    /**
+     * The document of {@code state}, {@code null} if the file no longer holds that content. After a compiled
+     * cache hit or creating the file nothing was parsed yet, so the file is read once.
+     */
+    private ConfigDocument currentDocument(FileState state) {
+        if (state.document != null) return state.document;
 
-            // ？
-            if (field.isAnnotationPresent(ClientOnly.class) && !isClient) {
+        ConfigDocument document;
+        try {
+            document = ConfigDocument.read(getConfigPath());
+        } catch (IOException e) {
+            return null;
+        }
+        return document.getContentHash() == state.hash ? document : null;
+    }
+
+    /**
+     * Replaces the values that differ from {@code written}, what the file holds, and adds the keys it is missing.
+     */
+    private ConfigDocument patchDocument(ConfigDocument document, ConfigSnapshot current, Map<String, Object> written) {
+        ConfigDocument.Patch patch = document.patch();
+        for (BoundMember section : schema.getMembers()) {
+            if (section instanceof BoundSection) {
+                patchSection(patch, document, current, written, (BoundSection) section, section.getName());
+            }
+        }
+        return patch.apply();
+    }
+
+    private void patchSection(ConfigDocument.Patch patch, ConfigDocument document, ConfigSnapshot current,
+                              Map<String, Object> written, BoundSection section, String topSection) {
+        for (BoundMember member : section.getMembers()) {
+            if (member instanceof BoundSection) {
+                patchSection(patch, document, current, written, (BoundSection) member, topSection);
                 continue;
             }
 
-            if (!field.isAnnotationPresent(SubCategory.class)) {
-                MethodHandle getter = lookup.unreflectGetter(field);
-                MethodHandle setter = lookup.unreflectSetter(field);
+            String path = member.getPath();
+            if (!isSimpleType(member.getType()) || !current.contains(path)) continue;
 
-                fieldAccessors.put(fullPath, new MethodHandleFieldAccessor(
-                        getter, setter, field.getType(), () -> {
-                    try {
-                        Object defaultInstance = field.getDeclaringClass().newInstance();
-                        return field.get(defaultInstance);
-                    } catch (Exception e) {
-                        return getTypeDefaultValue(field.getType());
+            Object value = current.get(path);
+            if (!document.contains(path)) {
+                String leading = "\n## " + formatFieldNameAsComment(member.getName()) + "\n"
+                        + relativeKey(path, topSection) + " = ";
+                patch.insert(topSection, path, leading, formatValue(value));
+            } else if (!written.containsKey(path) || !Objects.equals(written.get(path), value)) {
+                patch.replace(path, formatValue(value));
+            }
+        }
+    }
+
+    /**
+     * Reads, range-checks and converts the value of every config path from {@code source}.
+     */
+    private Map<String, Object> readValues(Function<String, Object> source) {
+        Map<String, Object> values = new HashMap<>();
+        try {
+            for (Map.Entry<String, BoundValue> entry : fieldAccessors.entrySet()) {
+                String path = entry.getKey();
+                BoundValue accessor = entry.getValue();
+                Object defaultValue = getDefaultValue(path);
+                Object value = source.apply(path);
+                if (value == null) {
+                    value = defaultValue;
+                }
+
+                if (value instanceof Number) {
+                    Object checked = validationPlan.clampToRange(path, (Number) value, (Number) defaultValue);
+                    if (checked != value) {
+                        metrics.validationFailed(path);
                     }
+                    value = checked;
                 }
-                ));
+                values.put(path, convertValue(value, accessor.getType()));
+            }
+        } catch (Exception e) {
+            TritiumCommon.LOG.error("Failed to read configuration values for mod: {}", modId, e);
+            throw new RuntimeException("Configuration rebuild failed", e);
+        }
+        return values;
+    }
+
+    /**
+     * Publishes {@code values}, except for paths a server overrides: those keep the server value and
+     * {@code values} becomes their local value.
+     */
+    private Set<String> applyValues(Map<String, Object> values) {
+        Map<String, Object> server = serverValues;
+        if (server.isEmpty()) {
+            return publish(values);
+        }
+
+        Map<String, Object> local = new HashMap<>(localValues);
+        Map<String, Object> effective = new HashMap<>(values);
+        for (Map.Entry<String, Object> entry : server.entrySet()) {
+            local.put(entry.getKey(), values.get(entry.getKey()));
+            effective.put(entry.getKey(), entry.getValue());
+        }
+        Set<String> changed = publish(effective);
+        localValues = Collections.unmodifiableMap(local);
+        return changed;
+    }
+
+    /**
+     * Diffs {@code values} against the current snapshot and publishes a new one containing only those changes.
+     * Instance sections are copied on write along the changed paths and shared otherwise; static fields are
+     * written in one tight pass right before publication and restored if validation fails.
+     */
+    private Set<String> publish(Map<String, Object> values) {
+        ConfigSnapshot previous = snapshot;
+        Set<String> changed = new HashSet<>();
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            if (!previous.contains(entry.getKey()) || !Objects.equals(previous.get(entry.getKey()), entry.getValue())) {
+                changed.add(entry.getKey());
             }
+        }
+        if (changed.isEmpty()) {
+            return Set.of();
+        }
 
-            if (field.isAnnotationPresent(SubCategory.class)) {
-                cacheFieldsRecursive(field.getType(), fullPath);
+        PhaseTimer rebuild = stats.start(ConfigPhase.REBUILD);
+        List<StaticWrite> staticWrites = new ArrayList<>();
+        Object root = previous.getRoot();
+        try {
+            for (String path : changed) {
+                Consumer<Object> setter = staticSetters.get(path);
+                if (setter != null) {
+                    staticWrites.add(new StaticWrite(path, setter, values.get(path)));
+                }
             }
+            if (!staticSchema) {
+                Set<String> dirtySections = new HashSet<>();
+                for (String path : changed) {
+                    for (int dot = path.indexOf('.'); dot >= 0; dot = path.indexOf('.', dot + 1)) {
+                        dirtySections.add(path.substring(0, dot));
+                    }
+                }
+                root = copyOnWrite(schema, root, changed, dirtySections, values);
+            }
+        } catch (Exception e) {
+            TritiumCommon.LOG.error("Failed to rebuild configuration object for mod: {}", modId, e);
+            throw new RuntimeException("Configuration rebuild failed", e);
         }
+
+        applyStaticWrites(staticWrites);
+        rebuild.end(changed.size());
+        PhaseTimer validation = stats.start(ConfigPhase.VALIDATE);
+        try {
+            validationPlan.validate(changed, values, root);
+        } catch (RuntimeException e) {
+            restoreStatics(staticWrites, previous);
+            metrics.validationFailed(e instanceof ConfigValidationException
+                    ? ((ConfigValidationException) e).getPath() : "validateConfig");
+            throw e;
+        }
+        validation.end(changed.size());
+
+        ConfigSnapshot next = new ConfigSnapshot(previous.getGeneration() + 1, values, root);
+        snapshot = next;
+        updateHandles(next, changed);
+        TritiumCommon.LOG.debug("Applied {} changed config values for mod: {}", changed.size(), modId);
+        Set<String> result = Collections.unmodifiableSet(changed);
+        for (BiConsumer<ConfigSnapshot, Set<String>> listener : changeListeners) {
+            try {
+                listener.accept(next, result);
+            } catch (RuntimeException e) {
+                TritiumCommon.LOG.error("Config change listener failed for mod: {}", modId, e);
+            }
+        }
+        return result;
     }
 
-    private void configureObjectRecursive(Object obj, String prefix) throws Exception {
-        for (Field field : obj.getClass().getDeclaredFields()) {
-            field.setAccessible(true);
-            //跳过客户端专属
-            if (field.isAnnotationPresent(ClientOnly.class) && !isClient) {
-                continue;
+    /**
+     * Returns {@code node} itself when nothing below {@code section} changed in an instance field, otherwise a
+     * shallow copy with the changed fields and sections replaced. Everything reached through a static field is
+     * written in place by a static write instead.
+     */
+    private Object copyOnWrite(BoundSection section, Object node, Set<String> changed, Set<String> dirtySections,
+                               Map<String, Object> values) {
+        Map<BoundMember, Object> replacements = null;
+
+        for (BoundMember member : section.getMembers()) {
+            String fieldPath = member.getPath();
+            if (member.isStatic()) continue;
+
+            Object replacement;
+            if (member instanceof BoundSection) {
+                if (!dirtySections.contains(fieldPath)) continue;
+
+                BoundSection child = (BoundSection) member;
+                Object original = child.get(node);
+                replacement = copyOnWrite(child, original != null ? original : child.newInstance(),
+                        changed, dirtySections, values);
+                if (replacement == original) continue;
+            } else {
+                if (!changed.contains(fieldPath)) continue;
+                replacement = values.get(fieldPath);
             }
 
-            String fieldPath = prefix.isEmpty() ? field.getName() : prefix + "." + field.getName();
+            if (replacements == null) {
+                replacements = new HashMap<>();
+            }
+            replacements.put(member, replacement);
+        }
 
-            if (field.isAnnotationPresent(SubCategory.class)) {
-                Object subObj = field.getType().newInstance();
-                configureObjectRecursive(subObj, fieldPath);
-                field.set(obj, subObj);
+        if (replacements == null) {
+            return node;
+        }
+
+        Object copy = section.newInstance();
+        for (BoundMember member : section.getMembers()) {
+            if (member.isStatic()) continue;
+            if (replacements.containsKey(member)) {
+                member.set(copy, replacements.get(member));
+            } else if (member instanceof BoundValue) {
+                ((BoundValue) member).copy(node, copy);
             } else {
-                if (isSimpleType(field.getType())) {
-                    FieldAccessor accessor = fieldAccessors.get(fieldPath);
-                    if (accessor != null) {
-                        Object defaultValue = accessor.getDefaultValue();
-                        ConfigValue<?> configValue = getCachedConfigValue(fieldPath, field.getType(), defaultValue);
-                        Object value = configValue.get();
-
-                        if (value instanceof Number) {
-                            value = validateRange(field, (Number) value, (Number) defaultValue);
-                        }
-
-                        accessor.setValue(obj, value);
-                    }
+                member.set(copy, member.get(node));
+            }
+        }
+        return copy;
+    }
+
+    private void applyStaticWrites(List<StaticWrite> writes) {
+        for (StaticWrite write : writes) {
+            try {
+                write.setter.accept(write.value);
+            } catch (Exception e) {
+                throw new RuntimeException("Failed to write static config field: " + write.path, e);
+            }
+        }
+    }
+
+    private void restoreStatics(List<StaticWrite> writes, ConfigSnapshot previous) {
+        for (StaticWrite write : writes) {
+            if (previous.contains(write.path)) {
+                try {
+                    write.setter.accept(previous.get(write.path));
+                } catch (Exception e) {
+                    TritiumCommon.LOG.warn("Failed to restore static config field {} for mod: {}", write.path, modId, e);
                 }
             }
         }
     }
 
-    @SuppressWarnings({"unchecked", "rawtypes"})
-    private ConfigValue<?> getCachedConfigValue(String key, Class<?> type, Object defaultValue) {
-        return configCache.computeIfAbsent(key, k -> createConfigValueSupplier(key, type, defaultValue));
+    /**
+     * Indexes every config value by path and records its default, read once from the freshly constructed
+     * {@code defaultsNode}.
+     */
+    private void cacheFieldsRecursive(BoundSection section, Object defaultsNode, Map<String, Object> defaultValues) {
+        for (BoundMember member : section.getMembers()) {
+            if (member instanceof BoundSection) {
+                BoundSection child = (BoundSection) member;
+                Object childNode = child.isStatic() || defaultsNode != null ? child.get(defaultsNode) : null;
+                // Static defaults are read without an owner, so a missing section is only created for instance fields
+                if (childNode == null && hasInstanceValues(child)) {
+                    childNode = child.newInstance();
+                }
+                cacheFieldsRecursive(child, childNode, defaultValues);
+            } else {
+                fieldAccessors.put(member.getPath(), (BoundValue) member);
+                defaultValues.put(member.getPath(), member.get(defaultsNode));
+            }
+        }
+    }
+
+    private static boolean hasInstanceValues(BoundSection section) {
+        for (BoundMember member : section.getMembers()) {
+            if (!member.isStatic() && !(member instanceof BoundSection)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Binds a setter for every value that lives outside the snapshot tree: static fields, and fields of sections
+     * reached through a static field. Those are written in place, the owning section is created once if the
+     * static field is still {@code null}.
+     *
+     * @param owner the section instance of {@code section} if it is reached through a static field, else null
+     */
+    private void bindStaticSetters(BoundSection section, Supplier<Object> owner) {
+        for (BoundMember member : section.getMembers()) {
+            if (member instanceof BoundSection) {
+                BoundSection child = (BoundSection) member;
+                Supplier<Object> childOwner = null;
+                if (child.isStatic()) {
+                    childOwner = () -> sectionInstance(child, null);
+                } else if (owner != null) {
+                    childOwner = () -> sectionInstance(child, owner.get());
+                }
+                bindStaticSetters(child, childOwner);
+            } else if (member.isStatic()) {
+                BoundValue value = (BoundValue) member;
+                staticSetters.put(member.getPath(), v -> value.set(null, v));
+            } else if (owner != null) {
+                BoundValue value = (BoundValue) member;
+                staticSetters.put(member.getPath(), v -> value.set(owner.get(), v));
+            }
+        }
     }
 
-    private ConfigValue<?> createConfigValueSupplier(String key, Class<?> type, Object defaultValue) {
+    private static Object sectionInstance(BoundSection section, Object owner) {
+        Object node = section.get(owner);
+        if (node == null) {
+            node = section.newInstance();
+            section.set(owner, node);
+        }
+        return node;
+    }
+
+    private Object readParsedValue(String path) {
+        Supplier<?> reader = valueReaders.computeIfAbsent(path, this::createValueReader);
+        return reader != null ? reader.get() : null;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Supplier<?> createValueReader(String key) {
+        BoundValue accessor = fieldAccessors.get(key);
+        Class<?> type = accessor.getType();
+        Object defaultValue = getDefaultValue(key);
+
         if (type == boolean.class || type == Boolean.class) {
-            return new ConfigValue<>(configParser.getBoolean(key, (Boolean) defaultValue));
+            return configParser.getBoolean(key, (Boolean) defaultValue);
         } else if (type == int.class || type == Integer.class) {
-            return new ConfigValue<>(configParser.getInt(key, (Integer) defaultValue));
+            return configParser.getInt(key, (Integer) defaultValue);
         } else if (type == long.class || type == Long.class) {
-            return new ConfigValue<>(configParser.getLong(key, (Long) defaultValue));
+            return configParser.getLong(key, (Long) defaultValue);
         } else if (type == double.class || type == Double.class) {
-            return new ConfigValue<>(configParser.getDouble(key, (Double) defaultValue));
+            return configParser.getDouble(key, (Double) defaultValue);
         } else if (type == String.class) {
-            return new ConfigValue<>(configParser.getString(key, (String) defaultValue));
+            return configParser.getString(key, (String) defaultValue);
         } else if (type.isEnum()) {
-            return new ConfigValue<>(configParser.getEnum(key, (Enum) defaultValue));
+            return configParser.getEnum(key, (Enum) defaultValue);
         } else if (List.class.isAssignableFrom(type)) {
-            return new ConfigValue<>(configParser.getStringList(key, (List<String>) defaultValue));
-        } else {
-            TritiumCommon.LOG.warn("Unsupported configuration type: {} for key: {} in mod: {}", type, key, modId);
-            return new ConfigValue<>(() -> defaultValue);
+            return configParser.getStringList(key, (List<String>) defaultValue);
+        }
+        TritiumCommon.LOG.warn("Unsupported configuration type: {} for key: {} in mod: {}", type, key, modId);
+        Object fallback = defaultValue;
+        return () -> fallback;
+    }
+
+    /**
+     * Creates the public {@link ConfigValue} handles once; they read from the current snapshot.
+     */
+    private void createConfigValues() {
+        for (Map.Entry<String, BoundValue> entry : fieldAccessors.entrySet()) {
+            String path = entry.getKey();
+            configCache.computeIfAbsent(path, p -> {
+                ConfigValue<?> value = createConfigValue(p, entry.getValue());
+                value.bindMetrics(metrics);
+                return value;
+            });
         }
     }
 
-    private void createDefaultConfig(Path configPath) {
+    private ConfigValue<?> createConfigValue(String path, BoundValue accessor) {
+        Class<?> type = accessor.getType();
+        long refreshInterval = accessor.getRefreshInterval();
+
+        if (type == boolean.class || type == Boolean.class) {
+            return new BooleanConfigValue(() -> Boolean.TRUE.equals(snapshot().get(path)), this::getGeneration, refreshInterval);
+        } else if (type == int.class || type == Integer.class) {
+            return new IntConfigValue(() -> numberAt(path).intValue(), this::getGeneration, refreshInterval);
+        } else if (type == long.class || type == Long.class) {
+            return new LongConfigValue(() -> numberAt(path).longValue(), this::getGeneration, refreshInterval);
+        } else if (type == double.class || type == Double.class) {
+            return new DoubleConfigValue(() -> numberAt(path).doubleValue(), this::getGeneration, refreshInterval);
+        }
+        return new ConfigValue<>(() -> snapshot().get(path), this::getGeneration, refreshInterval);
+    }
+
+    private Number numberAt(String path) {
+        Object value = snapshot().get(path);
+        return value instanceof Number ? (Number) value : 0;
+    }
+
+    /**
+     * @return the content written, or {@code null} if the file couldn't be created
+     */
+    private String createDefaultConfig(Path configPath) {
         try {
-            String configContent = generateConfigFile();
+            String configContent = generateConfigFile(snapshot);
             Files.createDirectories(configPath.getParent());
-            Files.write(configPath, configContent.getBytes());
+            writeAtomically(configPath, configContent);
             TritiumCommon.LOG.info("Default configuration created for mod {} at: {}", modId, configPath);
+            return configContent;
         } catch (IOException e) {
             TritiumCommon.LOG.error("Failed to create default configuration for mod: {}", modId, e);
+            return null;
         }
     }
 
@@ -395,7 +1431,11 @@ public class TritiumConfig {
         return Paths.get("config", modId, configFileName + ".toml");
     }
 
-    private String generateConfigFile() {
+    private Path getCompiledCachePath() {
+        return Paths.get("config", modId, ".cache", configFileName + ".tcbin");
+    }
+
+    String generateConfigFile(ConfigSnapshot current) {
         StringBuilder sb = new StringBuilder();
 
         sb.append("# ").append(modId).append(" Configuration\n");
@@ -404,71 +1444,72 @@ public class TritiumConfig {
         sb.append("# Client-only sections will not be generated on server side\n");
         sb.append("# Edit this file and it will be automatically reloaded\n");
         sb.append("\n");
+        sb.append(MigrationPlan.VERSION_KEY).append(" = ").append(migrationPlan.getCurrentVersion()).append("\n");
+        sb.append(ConfigTokenizer.FORMAT_KEY).append(" = ").append(ConfigTokenizer.ESCAPED_FORMAT).append("\n\n");
 
-        try {
-            Object configObj = configRef.get();
-            for (Field sectionField : configClass.getDeclaredFields()) {
-                sectionField.setAccessible(true);
-                if (sectionField.isAnnotationPresent(ClientOnly.class) && !isClient) {
-                    continue;
-                }
-
-                Object section = sectionField.get(configObj);
-                String sectionName = sectionField.getName();
-                sb.append("[").append(sectionName).append("]\n");
-                generateFlattenedSectionContent(sb, section, "");
+        for (BoundMember section : schema.getMembers()) {
+            sb.append("[").append(section.getName()).append("]\n");
+            if (section instanceof BoundSection) {
+                generateFlattenedSectionContent(sb, current, (BoundSection) section, section.getName(), "");
             }
-        } catch (Exception e) {
-            TritiumCommon.LOG.error("Failed to generate configuration content for mod: {}", modId, e);
         }
         return sb.toString();
     }
 
-    private void generateFlattenedSectionContent(StringBuilder sb, Object section, String indent) throws Exception {
-        if (section == null) return;
+    /**
+     * Key of {@code path} inside the {@code [topSection]} table, e.g. {@code "entityCulling.enableCulling"}
+     * for {@code "rendering.entityCulling.enableCulling"}.
+     */
+    private static String relativeKey(String path, String topSection) {
+        return path.substring(topSection.length() + 1);
+    }
 
-        for (Field field : section.getClass().getDeclaredFields()) {
-            field.setAccessible(true);
+    private static String formatValue(Object value) {
+        StringBuilder sb = new StringBuilder();
+        appendValue(sb, value);
+        return sb.toString();
+    }
 
-            // 跳过客户端专属配置项
-            if (field.isAnnotationPresent(ClientOnly.class) && !isClient) {
-                continue;
+    private static void appendValue(StringBuilder sb, Object value) {
+        if (value instanceof Boolean) {
+            sb.append(value.toString().toLowerCase());
+        } else if (value instanceof String) {
+            ConfigTokenizer.appendQuoted(sb, (String) value);
+        } else if (value instanceof Enum) {
+            sb.append("\"").append(((Enum<?>) value).name()).append("\"");
+        } else if (value instanceof List) {
+            @SuppressWarnings("unchecked")
+            List<String> list = (List<String>) value;
+            sb.append("[");
+            for (int i = 0; i < list.size(); i++) {
+                if (i > 0) sb.append(", ");
+                ConfigTokenizer.appendQuoted(sb, list.get(i));
             }
+            sb.append("]");
+        } else {
+            sb.append(value);
+        }
+    }
 
-            String fieldName = field.getName();
-            Object value = field.get(section);
+    private void generateFlattenedSectionContent(StringBuilder sb, ConfigSnapshot current, BoundSection section,
+                                                 String topSection, String indent) {
+        // 客户端专属配置项已在 bind 时剔除
+        for (BoundMember member : section.getMembers()) {
+            String fieldName = member.getName();
 
-            if (field.isAnnotationPresent(SubCategory.class)) {
-                SubCategory subCat = field.getAnnotation(SubCategory.class);
+            if (member instanceof BoundSection) {
+                BoundSection subCat = (BoundSection) member;
                 sb.append(indent).append("#").append("-".repeat(25)).append("\n");
-                sb.append(indent).append("# ").append(subCat.value()).append("\n");
+                sb.append(indent).append("# ").append(subCat.getComment()).append("\n");
                 sb.append(indent).append("#").append("-".repeat(25)).append("\n\n");
-                generateFlattenedSectionContent(sb, value, indent);
+                generateFlattenedSectionContent(sb, current, subCat, topSection, indent);
             } else {
-                if (isSimpleType(field.getType())) {
+                if (isSimpleType(member.getType()) && current.contains(member.getPath())) {
+                    Object value = current.get(member.getPath());
                     sb.append(indent).append("## ").append(formatFieldNameAsComment(fieldName)).append("\n");
-                    sb.append(indent).append(fieldName).append(" = ");
-
-                    if (value instanceof Boolean) {
-                        sb.append(value.toString().toLowerCase());
-                    } else if (value instanceof String) {
-                        sb.append("\"").append(value).append("\"");
-                    } else if (value instanceof Enum) {
-                        sb.append("\"").append(((Enum<?>) value).name()).append("\"");
-                    } else if (value instanceof List) {
-                        @SuppressWarnings("unchecked")
-                        List<String> list = (List<String>) value;
-                        sb.append("[");
-                        for (int i = 0; i < list.size(); i++) {
-                            if (i > 0) sb.append(", ");
-                            sb.append("\"").append(list.get(i)).append("\"");
-                        }
-                        sb.append("]");
-                    } else if (value instanceof Long) {
-                        sb.append(value);
-                    } else {
-                        sb.append(value);
-                    }
+                    // Nested sections are written as dotted keys, so they load back under their full path
+                    sb.append(indent).append(relativeKey(member.getPath(), topSection)).append(" = ");
+                    appendValue(sb, value);
                     sb.append("\n\n");
                 }
             }
@@ -477,6 +1518,10 @@ public class TritiumConfig {
 
     public TritiumConfig filename(String name) {
         configFileName = name;
+        // register() loads the file under the new name
+        if (!registered || lazy && !materialized) {
+            return this;
+        }
         if (fileWatcher != null) {
             fileWatcher.stop();
         }
@@ -496,115 +1541,31 @@ public class TritiumConfig {
         return isClient;
     }
 
-    private interface FieldAccessor {
-        Object getValue(Object obj) throws Exception;
-
-        void setValue(Object obj, Object value) throws Exception;
-
-        Object getDefaultValue() throws Exception;
+    private static final class StaticWrite {
+        private final String path;
+        private final Consumer<Object> setter;
+        private final Object value;
 
-        Class<?> getType();
-    }
-
-    @FunctionalInterface
-    private interface SupplierWithException<T> {
-        T get() throws Exception;
-    }
-
-    private static class MethodHandleFieldAccessor implements FieldAccessor {
-        private final MethodHandle getter;
-        private final MethodHandle setter;
-        private final Class<?> type;
-        private final SupplierWithException<Object> defaultValueSupplier;
-
-        public MethodHandleFieldAccessor(MethodHandle getter, MethodHandle setter,
-                                         Class<?> type, SupplierWithException<Object> defaultValueSupplier) {
-            this.getter = getter;
+        private StaticWrite(String path, Consumer<Object> setter, Object value) {
+            this.path = path;
             this.setter = setter;
-            this.type = type;
-            this.defaultValueSupplier = defaultValueSupplier;
-        }
-
-        @Override
-        public Object getValue(Object obj) throws Exception {
-            try {
-                return getter.invoke(obj);
-            } catch (Throwable e) {
-                throw new RuntimeException(e);
-            }
-        }
-
-        @Override
-        public void setValue(Object obj, Object value) throws Exception {
-            try {
-                Object convertedValue = convertValue(value, type);
-                int parameterCount = setter.type().parameterCount();
-                if (parameterCount == 1) {
-                    setter.invoke(convertedValue);
-                } else if (parameterCount == 2) {
-                    setter.invoke(obj, convertedValue);
-                } else {
-                    throw new RuntimeException("Unexpected setter parameter count: " + parameterCount);
-                }
-            } catch (Throwable e) {
-                throw new RuntimeException(e);
-            }
-        }
-
-        private Object convertValue(Object value, Class<?> targetType) {
-            if (value == null) return getTypeDefaultValue(targetType);
-            if (targetType.isInstance(value)) {
-                return value;
-            }
-
-            try {
-                if (targetType == boolean.class || targetType == Boolean.class) {
-                    if (value instanceof Boolean) return value;
-                    if (value instanceof String) return Boolean.parseBoolean((String) value);
-                    if (value instanceof Number) return ((Number) value).intValue() != 0;
-                    return false;
-                } else if (targetType == int.class || targetType == Integer.class) {
-                    if (value instanceof Integer) return value;
-                    if (value instanceof Number) return ((Number) value).intValue();
-                    if (value instanceof String) return Integer.parseInt((String) value);
-                    return 0;
-                } else if (targetType == double.class || targetType == Double.class) {
-                    if (value instanceof Double) return value;
-                    if (value instanceof Number) return ((Number) value).doubleValue();
-                    if (value instanceof String) return Double.parseDouble((String) value);
-                    return 0.0;
-                } else if (targetType == long.class || targetType == Long.class) {
-                    if (value instanceof Long) return value;
-                    if (value instanceof Number) return ((Number) value).longValue();
-                    if (value instanceof String) return Long.parseLong((String) value);
-                    return 0L;
-                } else if (targetType == String.class) {
-                    return value.toString();
-                } else if (targetType.isEnum()) {
-                    if (value instanceof String) {
-                        try {
-                            return Enum.valueOf((Class<Enum>) targetType, ((String) value).trim().toUpperCase());
-                        } catch (IllegalArgumentException e) {
-                            TritiumCommon.LOG.warn("Invalid enum value '{}' for type {}, using first enum value", value, targetType.getSimpleName());
-                            return targetType.getEnumConstants()[0];
-                        }
-                    }
-                }
-            } catch (Exception e) {
-                TritiumCommon.LOG.warn("Failed to convert value '{}' to type {}, using default", value, targetType.getSimpleName(), e);
-            }
-
-            return getTypeDefaultValue(targetType);
-        }
-
-        @Override
-        public Object getDefaultValue() throws Exception {
-            return defaultValueSupplier.get();
+            this.value = value;
         }
+    }
 
-        @Override
-        public Class<?> getType() {
-            return type;
+    /**
+     * The content hash of the config file, the values it holds, which {@link #save()} diffs the snapshot against,
+     * and its parsed document, {@code null} if it was not parsed yet.
+     */
+    private static final class FileState {
+        private final long hash;
+        private final Map<String, Object> values;
+        private final ConfigDocument document;
+
+        private FileState(long hash, Map<String, Object> values, ConfigDocument document) {
+            this.hash = hash;
+            this.values = values;
+            this.document = document;
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,270 @@
+package me.zcraft.tc.config;
+
+import me.zcraft.tc.TritiumCommon;
+import me.zcraft.tc.annotation.Range;
+import me.zcraft.tc.annotation.Validation;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Validation program compiled once per config class at registration. Annotations are read and rule strings
+ * parsed up front: range bounds are kept as primitives, regex rules as precompiled {@link Pattern}s and the
+ * class-level {@code validateConfig()} hook as a method handle, so running the plan needs no reflection.
+ */
+public final class ValidationPlan {
+    private static final MethodType VALIDATE_TYPE = MethodType.methodType(void.class, Object.class);
+
+    private final Map<String, FieldRules> rules;
+    private final Consumer<Object> customValidator;
+
+    private ValidationPlan(Map<String, FieldRules> rules, Consumer<Object> customValidator) {
+        this.rules = rules;
+        this.customValidator = customValidator;
+    }
+
+    /**
+     * @param fields the config paths to validate and the fields they are bound to
+     */
+    public static ValidationPlan compile(Class<?> configClass, Map<String, Field> fields) {
+        Map<String, FieldRules> rules = new HashMap<>();
+        for (Map.Entry<String, Field> entry : fields.entrySet()) {
+            FieldRules fieldRules = FieldRules.compile(entry.getKey(), entry.getValue());
+            if (fieldRules != null) {
+                rules.put(entry.getKey(), fieldRules);
+            }
+        }
+        return new ValidationPlan(Map.copyOf(rules), findCustomValidator(configClass));
+    }
+
+    /**
+     * Starts a plan from rules that are already known, e.g. from a generated config binder.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    private static Consumer<Object> findCustomValidator(Class<?> configClass) {
+        try {
+            Method method = configClass.getMethod("validateConfig");
+            MethodHandle target = MethodHandles.publicLookup().unreflect(method);
+            if (Modifier.isStatic(method.getModifiers())) {
+                // A static validator ignores the root it's called with
+                target = MethodHandles.dropArguments(target, 0, Object.class);
+            }
+            MethodHandle handle = target.asType(VALIDATE_TYPE);
+            return root -> {
+                try {
+                    handle.invokeExact(root);
+                } catch (Throwable e) {
+                    throw e instanceof RuntimeException ? (RuntimeException) e : new RuntimeException(e.getMessage(), e);
+                }
+            };
+        } catch (NoSuchMethodException e) {
+            return null;
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Cannot access validateConfig() of " + configClass.getName(), e);
+        }
+    }
+
+    public void validate(Map<String, Object> values, Object root) {
+        for (FieldRules fieldRules : rules.values()) {
+            fieldRules.check(values.get(fieldRules.path));
+        }
+        validateCustomRules(root);
+    }
+
+    public void validate(Collection<String> paths, Map<String, Object> values, Object root) {
+        for (String path : paths) {
+            FieldRules fieldRules = rules.get(path);
+            if (fieldRules != null) {
+                fieldRules.check(values.get(path));
+            }
+        }
+        validateCustomRules(root);
+    }
+
+    public void validateCustomRules(Object root) {
+        if (customValidator == null || root == null) return;
+
+        try {
+            customValidator.accept(root);
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Custom validation failed: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Returns {@code value}, or {@code defaultValue} if the path has a range and {@code value} is outside of it.
+     */
+    public <T extends Number> T clampToRange(String path, T value, T defaultValue) {
+        FieldRules fieldRules = rules.get(path);
+        if (fieldRules == null || !fieldRules.hasRange) {
+            return value;
+        }
+
+        double numValue = value.doubleValue();
+        if (numValue < fieldRules.min || numValue > fieldRules.max) {
+            TritiumCommon.LOG.warn(
+                    "Config value {} = {} is out of range [{}, {}], using default: {}",
+                    path, numValue, fieldRules.min, fieldRules.max, defaultValue
+            );
+            return defaultValue;
+        }
+        return value;
+    }
+
+    /**
+     * The {@code @Range} of a path as {@code {min, max}}, or {@code null} if it has none.
+     */
+    public double[] getRange(String path) {
+        FieldRules fieldRules = rules.get(path);
+        return fieldRules != null && fieldRules.hasRange ? new double[]{fieldRules.min, fieldRules.max} : null;
+    }
+
+    /**
+     * Hash of the field rules, stable across runs. Changes whenever a rule changes which values are accepted.
+     */
+    public long fingerprint() {
+        StringBuilder sb = new StringBuilder();
+        for (FieldRules fieldRules : new TreeMap<>(rules).values()) {
+            sb.append(fieldRules.path).append('|').append(fieldRules.hasRange)
+                    .append('|').append(fieldRules.min).append('|').append(fieldRules.max)
+                    .append('|').append(fieldRules.minLength).append('|').append(fieldRules.maxLength)
+                    .append('|').append(fieldRules.regex).append('\n');
+        }
+        sb.append(customValidator != null);
+        return ContentHash.of(sb);
+    }
+
+    public static final class Builder {
+        private final Map<String, FieldRules> rules = new HashMap<>();
+        private Consumer<Object> customValidator;
+
+        private Builder() {
+        }
+
+        public Builder range(String path, double min, double max) {
+            FieldRules existing = rules.get(path);
+            rules.put(path, existing != null
+                    ? new FieldRules(path, true, min, max, existing.minLength, existing.maxLength, existing.regex)
+                    : new FieldRules(path, true, min, max, -1, -1, null));
+            return this;
+        }
+
+        /**
+         * @param rule a {@code @Validation} rule such as {@code "minLength:2"}
+         */
+        public Builder validation(String path, String rule) {
+            FieldRules existing = rules.get(path);
+            rules.put(path, existing != null
+                    ? FieldRules.of(path, existing.hasRange, existing.min, existing.max, rule)
+                    : FieldRules.of(path, false, 0, 0, rule));
+            return this;
+        }
+
+        /**
+         * Class-level check run after the field rules, the equivalent of a {@code validateConfig()} method.
+         */
+        public Builder custom(Consumer<Object> validator) {
+            this.customValidator = validator;
+            return this;
+        }
+
+        public ValidationPlan build() {
+            return new ValidationPlan(Map.copyOf(rules), customValidator);
+        }
+    }
+
+    private static final class FieldRules {
+        private final String path;
+        private final boolean hasRange;
+        private final double min;
+        private final double max;
+        private final int minLength;
+        private final int maxLength;
+        private final Pattern pattern;
+        private final String regex;
+
+        private FieldRules(String path, boolean hasRange, double min, double max, int minLength, int maxLength, String regex) {
+            this.path = path;
+            this.hasRange = hasRange;
+            this.min = min;
+            this.max = max;
+            this.minLength = minLength;
+            this.maxLength = maxLength;
+            this.regex = regex;
+            this.pattern = regex != null ? Pattern.compile(regex) : null;
+        }
+
+        static FieldRules compile(String path, Field field) {
+            Range range = field.getAnnotation(Range.class);
+            Validation validation = field.getAnnotation(Validation.class);
+            if (range == null && validation == null) {
+                return null;
+            }
+            return of(path, range != null, range != null ? range.min() : 0, range != null ? range.max() : 0,
+                    validation != null ? validation.value() : null);
+        }
+
+        static FieldRules of(String path, boolean hasRange, double min, double max, String rule) {
+            int minLength = -1;
+            int maxLength = -1;
+            String regex = null;
+            if (rule != null) {
+                if (rule.startsWith("minLength:")) {
+                    minLength = Integer.parseInt(rule.substring(10));
+                } else if (rule.startsWith("maxLength:")) {
+                    maxLength = Integer.parseInt(rule.substring(10));
+                } else if (rule.startsWith("regex:")) {
+                    regex = rule.substring(6);
+                }
+            }
+            return new FieldRules(path, hasRange, min, max, minLength, maxLength, regex);
+        }
+
+        void check(Object value) {
+            if (hasRange && value instanceof Number) {
+                double numValue = ((Number) value).doubleValue();
+                if (numValue < min || numValue > max) {
+                    throw new ConfigValidationException(path, String.format(
+                            "Config validation failed: %s = %s is out of range [%s, %s]",
+                            path, numValue, min, max
+                    ));
+                }
+            }
+
+            if (!(value instanceof String)) return;
+            String string = (String) value;
+
+            if (minLength >= 0 && string.length() < minLength) {
+                throw new ConfigValidationException(path, String.format(
+                        "Config validation failed: %s length must be at least %d",
+                        path, minLength
+                ));
+            }
+            if (maxLength >= 0 && string.length() > maxLength) {
+                throw new ConfigValidationException(path, String.format(
+                        "Config validation failed: %s length must be at most %d",
+                        path, maxLength
+                ));
+            }
+            if (pattern != null && !pattern.matcher(string).matches()) {
+                throw new ConfigValidationException(path, String.format(
+                        "Config validation failed: %s must match pattern %s",
+                        path, regex
+                ));
+            }
+        }
+    }
+}
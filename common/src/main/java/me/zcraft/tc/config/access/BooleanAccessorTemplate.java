@@ -0,0 +1,52 @@
+package me.zcraft.tc.config.access;
+
+import java.lang.constant.ConstantDescs;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+
+/**
+ * Template for hidden boolean accessors, never loaded by name. See {@link FieldAccessorFactory}.
+ */
+final class BooleanAccessorTemplate extends TypedAccessor {
+    private static final MethodHandle GETTER = classData(0);
+    private static final MethodHandle SETTER = classData(1);
+
+    BooleanAccessorTemplate() {
+    }
+
+    private static MethodHandle classData(int index) {
+        try {
+            return MethodHandles.classDataAt(MethodHandles.lookup(), ConstantDescs.DEFAULT_NAME, MethodHandle.class, index);
+        } catch (IllegalAccessException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    @Override
+    public Object get(Object target) {
+        return getBoolean(target);
+    }
+
+    @Override
+    public void set(Object target, Object value) {
+        setBoolean(target, (Boolean) value);
+    }
+
+    @Override
+    public boolean getBoolean(Object target) {
+        try {
+            return (boolean) GETTER.invokeExact(target);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    @Override
+    public void setBoolean(Object target, boolean value) {
+        try {
+            SETTER.invokeExact(target, value);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+}
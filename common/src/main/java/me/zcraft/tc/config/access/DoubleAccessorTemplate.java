@@ -0,0 +1,52 @@
+package me.zcraft.tc.config.access;
+
+import java.lang.constant.ConstantDescs;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+
+/**
+ * Template for hidden double accessors, never loaded by name. See {@link FieldAccessorFactory}.
+ */
+final class DoubleAccessorTemplate extends TypedAccessor {
+    private static final MethodHandle GETTER = classData(0);
+    private static final MethodHandle SETTER = classData(1);
+
+    DoubleAccessorTemplate() {
+    }
+
+    private static MethodHandle classData(int index) {
+        try {
+            return MethodHandles.classDataAt(MethodHandles.lookup(), ConstantDescs.DEFAULT_NAME, MethodHandle.class, index);
+        } catch (IllegalAccessException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    @Override
+    public Object get(Object target) {
+        return getDouble(target);
+    }
+
+    @Override
+    public void set(Object target, Object value) {
+        setDouble(target, (Double) value);
+    }
+
+    @Override
+    public double getDouble(Object target) {
+        try {
+            return (double) GETTER.invokeExact(target);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    @Override
+    public void setDouble(Object target, double value) {
+        try {
+            SETTER.invokeExact(target, value);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package me.zcraft.tc.config.access;
+
+import me.zcraft.tc.TritiumCommon;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.List;
+
+/**
+ * Creates {@link TypedAccessor}s for config fields.
+ * <p>
+ * Each accessor is a hidden class defined from one of the template classes in this package, with the field's
+ * getter and setter handed over as class data. The template stores them in {@code static final} fields, so
+ * every call site sees constant method handles that the JIT can inline like a direct field access, and the
+ * primitive templates never box. If hidden classes are unavailable the factory falls back to an accessor that
+ * keeps the handles in instance fields.
+ */
+public final class FieldAccessorFactory {
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final byte[] INT_TEMPLATE = templateBytes(IntAccessorTemplate.class.getSimpleName());
+    private static final byte[] LONG_TEMPLATE = templateBytes(LongAccessorTemplate.class.getSimpleName());
+    private static final byte[] DOUBLE_TEMPLATE = templateBytes(DoubleAccessorTemplate.class.getSimpleName());
+    private static final byte[] BOOLEAN_TEMPLATE = templateBytes(BooleanAccessorTemplate.class.getSimpleName());
+    private static final byte[] OBJECT_TEMPLATE = templateBytes(ObjectAccessorTemplate.class.getSimpleName());
+
+    private FieldAccessorFactory() {
+    }
+
+    public static TypedAccessor create(Field field) {
+        field.setAccessible(true);
+        Class<?> type = field.getType();
+        boolean isStatic = Modifier.isStatic(field.getModifiers());
+
+        MethodHandle getter;
+        MethodHandle setter;
+        try {
+            getter = LOOKUP.unreflectGetter(field);
+            setter = LOOKUP.unreflectSetter(field);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Cannot access config field " + field, e);
+        }
+
+        Class<?> erased = type.isPrimitive() ? type : Object.class;
+        if (isStatic) {
+            getter = MethodHandles.dropArguments(getter, 0, Object.class);
+            setter = MethodHandles.dropArguments(setter, 0, Object.class);
+        }
+        getter = getter.asType(MethodType.methodType(erased, Object.class));
+        setter = setter.asType(MethodType.methodType(void.class, Object.class, erased));
+
+        TypedAccessor accessor = defineHidden(templateFor(type), getter, setter);
+        if (accessor == null) {
+            accessor = new MethodHandleAccessor(getter, setter);
+        }
+        accessor.bind(type, isStatic, field.getName());
+        return accessor;
+    }
+
+    private static byte[] templateFor(Class<?> type) {
+        if (type == int.class) return INT_TEMPLATE;
+        if (type == long.class) return LONG_TEMPLATE;
+        if (type == double.class) return DOUBLE_TEMPLATE;
+        if (type == boolean.class) return BOOLEAN_TEMPLATE;
+        if (type.isPrimitive()) return null;
+        return OBJECT_TEMPLATE;
+    }
+
+    private static TypedAccessor defineHidden(byte[] template, MethodHandle getter, MethodHandle setter) {
+        if (template == null) return null;
+
+        try {
+            MethodHandles.Lookup hidden = LOOKUP.defineHiddenClassWithClassData(template, List.of(getter, setter), true);
+            return (TypedAccessor) hidden.findConstructor(hidden.lookupClass(), MethodType.methodType(void.class)).invoke();
+        } catch (Throwable e) {
+            TritiumCommon.LOG.debug("Falling back to method handle accessor", e);
+            return null;
+        }
+    }
+
+    private static byte[] templateBytes(String simpleName) {
+        try (InputStream in = FieldAccessorFactory.class.getResourceAsStream(simpleName + ".class")) {
+            return in != null ? in.readAllBytes() : null;
+        } catch (IOException e) {
+            TritiumCommon.LOG.warn("Failed to read accessor template {}", simpleName, e);
+            return null;
+        }
+    }
+
+    /**
+     * Fallback used when a template can't be defined, e.g. for byte/short/float/char fields.
+     */
+    private static final class MethodHandleAccessor extends TypedAccessor {
+        private final MethodHandle getter;
+        private final MethodHandle setter;
+
+        private MethodHandleAccessor(MethodHandle getter, MethodHandle setter) {
+            this.getter = getter;
+            this.setter = setter;
+        }
+
+        @Override
+        public Object get(Object target) {
+            try {
+                return getter.invoke(target);
+            } catch (Throwable e) {
+                throw rethrow(e);
+            }
+        }
+
+        @Override
+        public void set(Object target, Object value) {
+            try {
+                setter.invoke(target, value);
+            } catch (Throwable e) {
+                throw rethrow(e);
+            }
+        }
+
+        @Override
+        public int getInt(Object target) {
+            try {
+                return (int) getter.invokeExact(target);
+            } catch (Throwable e) {
+                throw rethrow(e);
+            }
+        }
+
+        @Override
+        public void setInt(Object target, int value) {
+            try {
+                setter.invokeExact(target, value);
+            } catch (Throwable e) {
+                throw rethrow(e);
+            }
+        }
+
+        @Override
+        public long getLong(Object target) {
+            try {
+                return (long) getter.invokeExact(target);
+            } catch (Throwable e) {
+                throw rethrow(e);
+            }
+        }
+
+        @Override
+        public void setLong(Object target, long value) {
+            try {
+                setter.invokeExact(target, value);
+            } catch (Throwable e) {
+                throw rethrow(e);
+            }
+        }
+
+        @Override
+        public double getDouble(Object target) {
+            try {
+                return (double) getter.invokeExact(target);
+            } catch (Throwable e) {
+                throw rethrow(e);
+            }
+        }
+
+        @Override
+        public void setDouble(Object target, double value) {
+            try {
+                setter.invokeExact(target, value);
+            } catch (Throwable e) {
+                throw rethrow(e);
+            }
+        }
+
+        @Override
+        public boolean getBoolean(Object target) {
+            try {
+                return (boolean) getter.invokeExact(target);
+            } catch (Throwable e) {
+                throw rethrow(e);
+            }
+        }
+
+        @Override
+        public void setBoolean(Object target, boolean value) {
+            try {
+                setter.invokeExact(target, value);
+            } catch (Throwable e) {
+                throw rethrow(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package me.zcraft.tc.config.access;
+
+import java.lang.constant.ConstantDescs;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+
+/**
+ * Template for hidden long accessors, never loaded by name. See {@link FieldAccessorFactory}.
+ */
+final class LongAccessorTemplate extends TypedAccessor {
+    private static final MethodHandle GETTER = classData(0);
+    private static final MethodHandle SETTER = classData(1);
+
+    LongAccessorTemplate() {
+    }
+
+    private static MethodHandle classData(int index) {
+        try {
+            return MethodHandles.classDataAt(MethodHandles.lookup(), ConstantDescs.DEFAULT_NAME, MethodHandle.class, index);
+        } catch (IllegalAccessException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    @Override
+    public Object get(Object target) {
+        return getLong(target);
+    }
+
+    @Override
+    public void set(Object target, Object value) {
+        setLong(target, (Long) value);
+    }
+
+    @Override
+    public long getLong(Object target) {
+        try {
+            return (long) GETTER.invokeExact(target);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    @Override
+    public void setLong(Object target, long value) {
+        try {
+            SETTER.invokeExact(target, value);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+}
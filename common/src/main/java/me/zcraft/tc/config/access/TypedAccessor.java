@@ -0,0 +1,86 @@
+package me.zcraft.tc.config.access;
+
+/**
+ * Getter/setter pair for one config field. Instances come from {@link FieldAccessorFactory}; the primitive
+ * methods of a matching accessor never box. Static fields ignore the target argument.
+ */
+public abstract class TypedAccessor {
+    private Class<?> type;
+    private boolean isStatic;
+    private String name;
+
+    protected TypedAccessor() {
+    }
+
+    /**
+     * For accessors written by hand or generated by the config processor; override the primitive methods that
+     * match {@code type}.
+     */
+    protected TypedAccessor(Class<?> type, boolean isStatic, String name) {
+        bind(type, isStatic, name);
+    }
+
+    final void bind(Class<?> type, boolean isStatic, String name) {
+        this.type = type;
+        this.isStatic = isStatic;
+        this.name = name;
+    }
+
+    public abstract Object get(Object target);
+
+    public abstract void set(Object target, Object value);
+
+    public int getInt(Object target) {
+        throw unsupported("int");
+    }
+
+    public void setInt(Object target, int value) {
+        throw unsupported("int");
+    }
+
+    public long getLong(Object target) {
+        throw unsupported("long");
+    }
+
+    public void setLong(Object target, long value) {
+        throw unsupported("long");
+    }
+
+    public double getDouble(Object target) {
+        throw unsupported("double");
+    }
+
+    public void setDouble(Object target, double value) {
+        throw unsupported("double");
+    }
+
+    public boolean getBoolean(Object target) {
+        throw unsupported("boolean");
+    }
+
+    public void setBoolean(Object target, boolean value) {
+        throw unsupported("boolean");
+    }
+
+    public Class<?> getType() {
+        return type;
+    }
+
+    public boolean isStatic() {
+        return isStatic;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    static RuntimeException rethrow(Throwable e) {
+        if (e instanceof RuntimeException) return (RuntimeException) e;
+        if (e instanceof Error) throw (Error) e;
+        return new RuntimeException(e);
+    }
+
+    private UnsupportedOperationException unsupported(String kind) {
+        return new UnsupportedOperationException("Field " + name + " of type " + type.getSimpleName() + " is not a " + kind);
+    }
+}
@@ -0,0 +1,54 @@
+package me.zcraft.tc.config.binder;
+
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * A field of a config class, either a {@link BoundValue} or a {@link BoundSection}. Static members ignore the
+ * owner argument.
+ */
+public abstract class BoundMember {
+    private final String name;
+    private final String path;
+    private final Class<?> type;
+    private final boolean isStatic;
+    private final Function<Object, Object> getter;
+    private final BiConsumer<Object, Object> setter;
+
+    BoundMember(String name, String path, Class<?> type, boolean isStatic,
+                Function<Object, Object> getter, BiConsumer<Object, Object> setter) {
+        this.name = name;
+        this.path = path;
+        this.type = type;
+        this.isStatic = isStatic;
+        this.getter = getter;
+        this.setter = setter;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Dotted config path, e.g. {@code "example.expl"}. Empty for the root section.
+     */
+    public String getPath() {
+        return path;
+    }
+
+    public Class<?> getType() {
+        return type;
+    }
+
+    public boolean isStatic() {
+        return isStatic;
+    }
+
+    public Object get(Object owner) {
+        return getter.apply(owner);
+    }
+
+    public void set(Object owner, Object value) {
+        setter.accept(owner, value);
+    }
+}
@@ -0,0 +1,103 @@
+package me.zcraft.tc.config.binder;
+
+import me.zcraft.tc.config.access.TypedAccessor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * A config class or {@code @SubCategory} section with its members in declaration order. Client-only members are
+ * already left out when the section was bound for a server.
+ */
+public final class BoundSection extends BoundMember {
+    private final String comment;
+    private final Supplier<Object> factory;
+    private final List<BoundMember> members;
+
+    private BoundSection(String name, String path, String comment, Class<?> type, boolean isStatic,
+                         Supplier<Object> factory, Function<Object, Object> getter, BiConsumer<Object, Object> setter,
+                         List<BoundMember> members) {
+        super(name, path, type, isStatic, getter, setter);
+        this.comment = comment;
+        this.factory = factory;
+        this.members = List.copyOf(members);
+    }
+
+    public static Builder root(Class<?> type, Supplier<Object> factory) {
+        return new Builder("", "", null, type, false, factory, owner -> owner, (owner, value) -> {
+            throw new UnsupportedOperationException("The root section has no owner");
+        });
+    }
+
+    /**
+     * The {@code @SubCategory} title, {@code null} for the root.
+     */
+    public String getComment() {
+        return comment;
+    }
+
+    /**
+     * Creates an instance with the declared defaults.
+     */
+    public Object newInstance() {
+        return factory.get();
+    }
+
+    public List<BoundMember> getMembers() {
+        return members;
+    }
+
+    public static final class Builder {
+        private final String name;
+        private final String path;
+        private final String comment;
+        private final Class<?> type;
+        private final boolean isStatic;
+        private final Supplier<Object> factory;
+        private final Function<Object, Object> getter;
+        private final BiConsumer<Object, Object> setter;
+        private final List<Object> members = new ArrayList<>();
+
+        private Builder(String name, String path, String comment, Class<?> type, boolean isStatic,
+                        Supplier<Object> factory, Function<Object, Object> getter, BiConsumer<Object, Object> setter) {
+            this.name = name;
+            this.path = path;
+            this.comment = comment;
+            this.type = type;
+            this.isStatic = isStatic;
+            this.factory = factory;
+            this.getter = getter;
+            this.setter = setter;
+        }
+
+        public Builder value(String name, Class<?> type, boolean isStatic, long refreshInterval, TypedAccessor accessor) {
+            members.add(new BoundValue(name, childPath(name), type, isStatic, refreshInterval, accessor));
+            return this;
+        }
+
+        /**
+         * Adds a nested section and returns its builder; members added to it end up at this position.
+         */
+        public Builder section(String name, String comment, Class<?> type, boolean isStatic, Supplier<Object> factory,
+                               Function<Object, Object> getter, BiConsumer<Object, Object> setter) {
+            Builder child = new Builder(name, childPath(name), comment, type, isStatic, factory, getter, setter);
+            members.add(child);
+            return child;
+        }
+
+        public BoundSection build() {
+            List<BoundMember> built = new ArrayList<>(members.size());
+            for (Object member : members) {
+                built.add(member instanceof Builder ? ((Builder) member).build() : (BoundMember) member);
+            }
+            return new BoundSection(name, path, comment, type, isStatic, factory, getter, setter, built);
+        }
+
+        private String childPath(String childName) {
+            return path.isEmpty() ? childName : path + "." + childName;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package me.zcraft.tc.config.binder;
+
+import me.zcraft.tc.config.access.TypedAccessor;
+
+/**
+ * A single config entry. {@link #set} expects a value already converted to {@link #getType()}; int, long, double
+ * and boolean fields are read and written through the primitive methods of their {@link TypedAccessor}.
+ */
+public final class BoundValue extends BoundMember {
+    private static final int OBJECT = 0;
+    private static final int INT = 1;
+    private static final int LONG = 2;
+    private static final int DOUBLE = 3;
+    private static final int BOOLEAN = 4;
+
+    private final long refreshInterval;
+    private final TypedAccessor accessor;
+    private final int kind;
+
+    BoundValue(String name, String path, Class<?> type, boolean isStatic, long refreshInterval, TypedAccessor accessor) {
+        super(name, path, type, isStatic, accessor::get, accessor::set);
+        this.refreshInterval = refreshInterval;
+        this.accessor = accessor;
+        this.kind = kindOf(type);
+    }
+
+    private static int kindOf(Class<?> type) {
+        if (type == int.class) return INT;
+        if (type == long.class) return LONG;
+        if (type == double.class) return DOUBLE;
+        if (type == boolean.class) return BOOLEAN;
+        return OBJECT;
+    }
+
+    /**
+     * Value of {@code @RefreshPolicy}, 0 if absent.
+     */
+    public long getRefreshInterval() {
+        return refreshInterval;
+    }
+
+    public TypedAccessor getAccessor() {
+        return accessor;
+    }
+
+    @Override
+    public void set(Object owner, Object value) {
+        switch (kind) {
+            case INT -> accessor.setInt(owner, (Integer) value);
+            case LONG -> accessor.setLong(owner, (Long) value);
+            case DOUBLE -> accessor.setDouble(owner, (Double) value);
+            case BOOLEAN -> accessor.setBoolean(owner, (Boolean) value);
+            default -> accessor.set(owner, value);
+        }
+    }
+
+    /**
+     * Copies the field from one instance to another without boxing.
+     */
+    public void copy(Object from, Object to) {
+        switch (kind) {
+            case INT -> accessor.setInt(to, accessor.getInt(from));
+            case LONG -> accessor.setLong(to, accessor.getLong(from));
+            case DOUBLE -> accessor.setDouble(to, accessor.getDouble(from));
+            case BOOLEAN -> accessor.setBoolean(to, accessor.getBoolean(from));
+            default -> accessor.set(to, accessor.get(from));
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package me.zcraft.tc.config.binder;
+
+import me.zcraft.tc.TritiumCommon;
+import me.zcraft.tc.config.ValidationPlan;
+
+/**
+ * Describes how a config class is read, written and validated. The {@code processor} module generates an
+ * implementation named {@code <ConfigClass>_TritiumBinder} for every {@code @ConfigVersion} class it can bind
+ * with plain field access; {@link #forClass} uses it when present and falls back to reflection otherwise.
+ */
+public interface ConfigBinder<T> {
+    String SUFFIX = "_TritiumBinder";
+
+    Class<T> getConfigClass();
+
+    /**
+     * Builds the member tree of the config class.
+     *
+     * @param client whether {@code @ClientOnly} members are included
+     */
+    BoundSection bind(boolean client);
+
+    ValidationPlan getValidationPlan();
+
+    /**
+     * Name of the generated binder of {@code configClass}, e.g. {@code a.b.Outer_Config_TritiumBinder} for
+     * {@code a.b.Outer.Config}.
+     */
+    static String binderName(Class<?> configClass) {
+        String name = configClass.getName();
+        int dot = name.lastIndexOf('.');
+        return name.substring(0, dot + 1) + name.substring(dot + 1).replace('$', '_') + SUFFIX;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> ConfigBinder<T> forClass(Class<T> configClass) {
+        try {
+            Class<?> binderClass = Class.forName(binderName(configClass), true, configClass.getClassLoader());
+            ConfigBinder<T> binder = (ConfigBinder<T>) binderClass.getDeclaredConstructor().newInstance();
+            if (binder.getConfigClass() == configClass) {
+                return binder;
+            }
+            TritiumCommon.LOG.warn("Ignoring binder {} generated for another class", binderClass.getName());
+        } catch (ClassNotFoundException e) {
+            // 没有生成的 binder，使用反射
+        } catch (ReflectiveOperationException | LinkageError e) {
+            TritiumCommon.LOG.warn("Failed to load generated binder for {}, using reflection", configClass.getName(), e);
+        }
+        return new ReflectiveBinder<>(configClass);
+    }
+}
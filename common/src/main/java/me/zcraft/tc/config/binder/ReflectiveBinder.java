@@ -0,0 +1,107 @@
+package me.zcraft.tc.config.binder;
+
+import me.zcraft.tc.annotation.ClientOnly;
+import me.zcraft.tc.annotation.RefreshPolicy;
+import me.zcraft.tc.annotation.SubCategory;
+import me.zcraft.tc.config.ValidationPlan;
+import me.zcraft.tc.config.access.FieldAccessorFactory;
+import me.zcraft.tc.config.access.TypedAccessor;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Binder for config classes without a generated one. Fields are discovered once per {@link #bind} call and
+ * accessed through {@link FieldAccessorFactory}.
+ */
+final class ReflectiveBinder<T> implements ConfigBinder<T> {
+    private final Class<T> configClass;
+
+    ReflectiveBinder(Class<T> configClass) {
+        this.configClass = configClass;
+    }
+
+    @Override
+    public Class<T> getConfigClass() {
+        return configClass;
+    }
+
+    @Override
+    public BoundSection bind(boolean client) {
+        BoundSection.Builder root = BoundSection.root(configClass, factory(configClass));
+        bindFields(root, configClass, client);
+        return root.build();
+    }
+
+    @Override
+    public ValidationPlan getValidationPlan() {
+        Map<String, Field> fields = new HashMap<>();
+        collectFields(configClass, "", fields);
+        return ValidationPlan.compile(configClass, fields);
+    }
+
+    private static void bindFields(BoundSection.Builder section, Class<?> clazz, boolean client) {
+        for (Field field : clazz.getDeclaredFields()) {
+            if (!isBindable(field) || field.isAnnotationPresent(ClientOnly.class) && !client) {
+                continue;
+            }
+
+            TypedAccessor accessor = FieldAccessorFactory.create(field);
+            boolean isStatic = Modifier.isStatic(field.getModifiers());
+            SubCategory subCategory = field.getAnnotation(SubCategory.class);
+            if (subCategory != null) {
+                BoundSection.Builder child = section.section(field.getName(), subCategory.value(), field.getType(),
+                        isStatic, factory(field.getType()), accessor::get, accessor::set);
+                bindFields(child, field.getType(), client);
+            } else {
+                RefreshPolicy refreshPolicy = field.getAnnotation(RefreshPolicy.class);
+                section.value(field.getName(), field.getType(), isStatic, refreshPolicy != null ? refreshPolicy.value() : 0,
+                        accessor);
+            }
+        }
+    }
+
+    private static void collectFields(Class<?> clazz, String prefix, Map<String, Field> fields) {
+        for (Field field : clazz.getDeclaredFields()) {
+            if (!isBindable(field)) continue;
+
+            String path = prefix.isEmpty() ? field.getName() : prefix + "." + field.getName();
+            if (field.isAnnotationPresent(SubCategory.class)) {
+                collectFields(field.getType(), path, fields);
+            } else {
+                fields.put(path, field);
+            }
+        }
+    }
+
+    /**
+     * Final fields can't be written back and synthetic ones (e.g. {@code this$0}) aren't config entries.
+     */
+    private static boolean isBindable(Field field) {
+        return !field.isSynthetic() && !Modifier.isFinal(field.getModifiers());
+    }
+
+    private static Supplier<Object> factory(Class<?> type) {
+        Constructor<?> constructor;
+        try {
+            constructor = type.getDeclaredConstructor();
+            constructor.setAccessible(true);
+        } catch (NoSuchMethodException e) {
+            return () -> {
+                throw new IllegalStateException("Config section has no no-arg constructor: " + type.getName());
+            };
+        }
+
+        return () -> {
+            try {
+                return constructor.newInstance();
+            } catch (ReflectiveOperationException e) {
+                throw new RuntimeException("Failed to create config section: " + type.getName(), e);
+            }
+        };
+    }
+}
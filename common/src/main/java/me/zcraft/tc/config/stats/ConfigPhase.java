@@ -0,0 +1,19 @@
+package me.zcraft.tc.config.stats;
+
+/**
+ * Timed steps of loading, reloading and saving a config.
+ */
+public enum ConfigPhase {
+    /** Binding the schema, capturing defaults and validating them. */
+    REGISTER,
+    /** Reading the file (or the compiled cache) and publishing the first values, including the phases below. */
+    INITIALIZE,
+    /** Reading and tokenizing the config file. */
+    PARSE,
+    MIGRATE,
+    /** Building the new config object for the changed values. */
+    REBUILD,
+    VALIDATE,
+    SAVE,
+    RELOAD
+}
@@ -0,0 +1,29 @@
+package me.zcraft.tc.config.stats;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("me.zcraft.tc.ConfigPhase")
+@Label("Config Phase")
+@Category({"Tritium", "Config"})
+@Description("One step of loading, reloading or saving a mod config")
+@StackTrace(false)
+final class ConfigPhaseEvent extends Event {
+    @Label("Mod Id")
+    String modId;
+
+    @Label("Phase")
+    String phase;
+
+    @Label("Keys")
+    @Description("Config values processed in this phase")
+    int keyCount;
+
+    @Label("Characters")
+    @Description("Characters of config file content read or written, 0 if the phase does no file I/O")
+    long charCount;
+}
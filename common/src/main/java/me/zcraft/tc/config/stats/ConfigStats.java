@@ -0,0 +1,117 @@
+package me.zcraft.tc.config.stats;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timings of one mod's config, aggregated per {@link ConfigPhase} since the config was created.
+ */
+public final class ConfigStats {
+    private final String modId;
+    private final Phase[] phases = new Phase[ConfigPhase.values().length];
+
+    public ConfigStats(String modId) {
+        this.modId = modId;
+        for (int i = 0; i < phases.length; i++) {
+            phases[i] = new Phase();
+        }
+    }
+
+    public PhaseTimer start(ConfigPhase phase) {
+        return new PhaseTimer(this, phase);
+    }
+
+    void record(ConfigPhase phase, long nanos, int keyCount, long charCount) {
+        Phase p = phases[phase.ordinal()];
+        synchronized (p) {
+            p.count++;
+            p.totalNanos += nanos;
+            p.maxNanos = Math.max(p.maxNanos, nanos);
+            p.lastKeyCount = keyCount;
+            p.lastCharCount = charCount;
+        }
+    }
+
+    public String getModId() {
+        return modId;
+    }
+
+    public long getCount(ConfigPhase phase) {
+        Phase p = phases[phase.ordinal()];
+        synchronized (p) {
+            return p.count;
+        }
+    }
+
+    public long getTotalNanos(ConfigPhase phase) {
+        Phase p = phases[phase.ordinal()];
+        synchronized (p) {
+            return p.totalNanos;
+        }
+    }
+
+    public long getMaxNanos(ConfigPhase phase) {
+        Phase p = phases[phase.ordinal()];
+        synchronized (p) {
+            return p.maxNanos;
+        }
+    }
+
+    /**
+     * Keys processed by the last run of {@code phase}.
+     */
+    public int getLastKeyCount(ConfigPhase phase) {
+        Phase p = phases[phase.ordinal()];
+        synchronized (p) {
+            return p.lastKeyCount;
+        }
+    }
+
+    /**
+     * Characters read or written by the last run of {@code phase}.
+     */
+    public long getLastCharCount(ConfigPhase phase) {
+        Phase p = phases[phase.ordinal()];
+        synchronized (p) {
+            return p.lastCharCount;
+        }
+    }
+
+    /**
+     * Time spent registering and initializing, i.e. what this config added to the boot time.
+     */
+    public long getStartupNanos() {
+        return getTotalNanos(ConfigPhase.REGISTER) + getTotalNanos(ConfigPhase.INITIALIZE);
+    }
+
+    /**
+     * Total time per phase, for phases that ran at least once.
+     */
+    public Map<ConfigPhase, Long> getTotals() {
+        Map<ConfigPhase, Long> totals = new EnumMap<>(ConfigPhase.class);
+        for (ConfigPhase phase : ConfigPhase.values()) {
+            if (getCount(phase) > 0) {
+                totals.put(phase, getTotalNanos(phase));
+            }
+        }
+        return totals;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(modId).append(": startup ")
+                .append(TimeUnit.NANOSECONDS.toMicros(getStartupNanos()) / 1000.0).append(" ms");
+        getTotals().forEach((phase, nanos) -> sb.append(", ").append(phase.name().toLowerCase())
+                .append(' ').append(TimeUnit.NANOSECONDS.toMicros(nanos) / 1000.0).append(" ms"));
+        return sb.toString();
+    }
+
+    private static final class Phase {
+        long count;
+        long totalNanos;
+        long maxNanos;
+        int lastKeyCount;
+        long lastCharCount;
+    }
+}
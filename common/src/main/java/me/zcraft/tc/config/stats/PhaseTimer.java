@@ -0,0 +1,43 @@
+package me.zcraft.tc.config.stats;
+
+/**
+ * One running phase, started with {@link ConfigStats#start(ConfigPhase)}. Ending it records the duration in the
+ * mod's {@link ConfigStats} and commits a JFR event if recording is enabled.
+ */
+public final class PhaseTimer {
+    private final ConfigStats stats;
+    private final ConfigPhase phase;
+    private final ConfigPhaseEvent event;
+    private final long start;
+
+    PhaseTimer(ConfigStats stats, ConfigPhase phase) {
+        this.stats = stats;
+        this.phase = phase;
+        ConfigPhaseEvent jfrEvent = new ConfigPhaseEvent();
+        if (jfrEvent.isEnabled()) {
+            jfrEvent.begin();
+            this.event = jfrEvent;
+        } else {
+            this.event = null;
+        }
+        this.start = System.nanoTime();
+    }
+
+    public void end(int keyCount) {
+        end(keyCount, 0);
+    }
+
+    public void end(int keyCount, long charCount) {
+        stats.record(phase, System.nanoTime() - start, keyCount, charCount);
+        if (event != null) {
+            event.end();
+            if (event.shouldCommit()) {
+                event.modId = stats.getModId();
+                event.phase = phase.name();
+                event.keyCount = keyCount;
+                event.charCount = charCount;
+                event.commit();
+            }
+        }
+    }
+}
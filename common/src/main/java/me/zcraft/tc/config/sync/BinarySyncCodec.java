@@ -0,0 +1,346 @@
+package me.zcraft.tc.config.sync;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compact binary {@link SyncCodec}. Numbers and lengths are varints, delta slots are written as the gap to the
+ * previous slot, and string lists whose encoding reaches the compression threshold are deflated.
+ * <p>
+ * Layout: format version, kind, mod id, schema hash, generation, value count, then per value the slot gap (deltas
+ * only), a type tag and the value.
+ */
+public final class BinarySyncCodec implements SyncCodec {
+    public static final int DEFAULT_COMPRESSION_THRESHOLD = 512;
+
+    private static final int FORMAT_VERSION = 1;
+    // Lists this long grow past any threshold anyway, decoding more would only be an attack on memory
+    private static final int MAX_INFLATED_LENGTH = 16 << 20;
+
+    private static final byte FALSE = 1;
+    private static final byte TRUE = 2;
+    private static final byte INT = 3;
+    private static final byte LONG = 4;
+    private static final byte DOUBLE = 5;
+    private static final byte STRING = 6;
+    private static final byte LIST = 7;
+    private static final byte DEFLATED_LIST = 8;
+    // A value without a default, e.g. a List field initialized to null
+    private static final byte NULL = 9;
+
+    private final int compressionThreshold;
+
+    public BinarySyncCodec() {
+        this(DEFAULT_COMPRESSION_THRESHOLD);
+    }
+
+    /**
+     * @param compressionThreshold encoded size in bytes from which a list is deflated
+     */
+    public BinarySyncCodec(int compressionThreshold) {
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    @Override
+    public byte[] encode(SyncPayload payload) {
+        Output out = new Output(64 + payload.getSlots().length * 8);
+        out.write(FORMAT_VERSION);
+        out.write(payload.getKind().ordinal());
+        out.writeString(payload.getModId());
+        out.writeLong(payload.getSchemaHash());
+        out.writeVarLong(payload.getGeneration());
+
+        int[] slots = payload.getSlots();
+        Object[] values = payload.getValues();
+        boolean delta = payload.getKind() == SyncPayload.Kind.DELTA;
+        out.writeVarInt(slots.length);
+        int previous = -1;
+        for (int i = 0; i < slots.length; i++) {
+            if (delta) {
+                if (slots[i] <= previous) {
+                    throw new IllegalArgumentException("Delta slots must be ascending: " + Arrays.toString(slots));
+                }
+                out.writeVarInt(slots[i] - previous - 1);
+                previous = slots[i];
+            }
+            writeValue(out, values[i]);
+        }
+        return out.toByteArray();
+    }
+
+    private void writeValue(Output out, Object value) {
+        if (value == null) {
+            out.write(NULL);
+        } else if (value instanceof Boolean) {
+            out.write((Boolean) value ? TRUE : FALSE);
+        } else if (value instanceof Integer) {
+            out.write(INT);
+            out.writeVarLong(zigZag((Integer) value));
+        } else if (value instanceof Long) {
+            out.write(LONG);
+            out.writeVarLong(zigZag((Long) value));
+        } else if (value instanceof Double) {
+            out.write(DOUBLE);
+            out.writeLong(Double.doubleToRawLongBits((Double) value));
+        } else if (value instanceof String) {
+            out.write(STRING);
+            out.writeString((String) value);
+        } else if (value instanceof Enum) {
+            out.write(STRING);
+            out.writeString(((Enum<?>) value).name());
+        } else if (value instanceof List) {
+            writeList(out, (List<?>) value);
+        } else {
+            throw new IllegalArgumentException("Unsupported sync value: " + value);
+        }
+    }
+
+    private void writeList(Output out, List<?> list) {
+        Output items = new Output(16 + list.size() * 16);
+        items.writeVarInt(list.size());
+        for (Object item : list) {
+            items.writeString(String.valueOf(item));
+        }
+
+        if (items.size() >= compressionThreshold) {
+            byte[] deflated = deflate(items.buffer(), items.size());
+            if (deflated.length < items.size()) {
+                out.write(DEFLATED_LIST);
+                out.writeVarInt(items.size());
+                out.writeVarInt(deflated.length);
+                out.write(deflated, 0, deflated.length);
+                return;
+            }
+        }
+        out.write(LIST);
+        out.write(items.buffer(), 0, items.size());
+    }
+
+    @Override
+    public SyncPayload decode(byte[] bytes) throws IOException {
+        ByteBuffer in = ByteBuffer.wrap(bytes);
+        try {
+            int format = in.get();
+            if (format != FORMAT_VERSION) {
+                throw new IOException("Unsupported sync format: " + format);
+            }
+            int kind = in.get();
+            if (kind < 0 || kind >= SyncPayload.Kind.values().length) {
+                throw new IOException("Unknown sync payload kind: " + kind);
+            }
+            String modId = readString(in);
+            long schemaHash = in.getLong();
+            long generation = readVarLong(in);
+
+            boolean delta = kind == SyncPayload.Kind.DELTA.ordinal();
+            int count = readLength(in);
+            int[] slots = new int[count];
+            Object[] values = new Object[count];
+            int previous = -1;
+            for (int i = 0; i < count; i++) {
+                previous = delta ? previous + 1 + readLength(in) : i;
+                slots[i] = previous;
+                values[i] = readValue(in);
+            }
+            if (in.hasRemaining()) {
+                throw new IOException(in.remaining() + " trailing bytes in sync payload");
+            }
+            return new SyncPayload(SyncPayload.Kind.values()[kind], modId, schemaHash, generation, slots, values);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated sync payload", e);
+        }
+    }
+
+    private static Object readValue(ByteBuffer in) throws IOException {
+        byte tag = in.get();
+        switch (tag) {
+            case NULL:
+                return null;
+            case FALSE:
+                return false;
+            case TRUE:
+                return true;
+            case INT:
+                return (int) unZigZag(readVarLong(in));
+            case LONG:
+                return unZigZag(readVarLong(in));
+            case DOUBLE:
+                return Double.longBitsToDouble(in.getLong());
+            case STRING:
+                return readString(in);
+            case LIST:
+                return readList(in);
+            case DEFLATED_LIST:
+                int length = readLength(in);
+                if (length > MAX_INFLATED_LENGTH) {
+                    throw new IOException("Sync list too large: " + length + " bytes");
+                }
+                byte[] deflated = new byte[readLength(in)];
+                in.get(deflated);
+                return readList(ByteBuffer.wrap(inflate(deflated, length)));
+            default:
+                throw new IOException("Unknown sync value tag: " + tag);
+        }
+    }
+
+    private static List<String> readList(ByteBuffer in) throws IOException {
+        int size = readLength(in);
+        // Every item takes at least one byte, so a bogus size fails before allocating for it
+        List<String> list = new ArrayList<>(Math.min(size, in.remaining()));
+        for (int i = 0; i < size; i++) {
+            list.add(readString(in));
+        }
+        return list;
+    }
+
+    private static byte[] deflate(byte[] data, int length) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(data, 0, length);
+            deflater.finish();
+            byte[] buffer = new byte[length];
+            int size = 0;
+            while (!deflater.finished() && size < buffer.length) {
+                size += deflater.deflate(buffer, size, buffer.length - size);
+            }
+            // Not finished means it would not be smaller, the caller then writes it as is
+            return deflater.finished() ? Arrays.copyOf(buffer, size) : data;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] data, int length) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data);
+            byte[] result = new byte[length];
+            int size = 0;
+            while (size < length && !inflater.finished()) {
+                int read = inflater.inflate(result, size, length - size);
+                if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) break;
+                size += read;
+            }
+            if (size != length || !inflater.finished()) {
+                throw new IOException("Corrupt compressed sync list");
+            }
+            return result;
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt compressed sync list", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static int readLength(ByteBuffer in) throws IOException {
+        long length = readVarLong(in);
+        if (length < 0 || length > Integer.MAX_VALUE) {
+            throw new IOException("Invalid length in sync payload: " + length);
+        }
+        return (int) length;
+    }
+
+    private static long readVarLong(ByteBuffer in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) return value;
+        }
+        throw new IOException("Varint too long in sync payload");
+    }
+
+    private static String readString(ByteBuffer in) throws IOException {
+        int length = readLength(in);
+        if (length > in.remaining()) {
+            throw new IOException("Truncated sync payload");
+        }
+        String value = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        return value;
+    }
+
+    /**
+     * Growable byte buffer; unlike {@link ByteArrayOutputStream} its methods are neither synchronized nor throwing.
+     */
+    private static final class Output {
+        private byte[] buffer;
+        private int size;
+
+        private Output(int capacity) {
+            buffer = new byte[Math.max(capacity, 16)];
+        }
+
+        void write(int b) {
+            ensure(1);
+            buffer[size++] = (byte) b;
+        }
+
+        void write(byte[] bytes, int offset, int length) {
+            ensure(length);
+            System.arraycopy(bytes, offset, buffer, size, length);
+            size += length;
+        }
+
+        void writeVarInt(int value) {
+            writeVarLong(value & 0xFFFFFFFFL);
+        }
+
+        void writeVarLong(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[size++] = (byte) value;
+        }
+
+        void writeLong(long value) {
+            ensure(8);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                buffer[size++] = (byte) (value >>> shift);
+            }
+        }
+
+        void writeString(String value) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(bytes.length);
+            write(bytes, 0, bytes.length);
+        }
+
+        byte[] buffer() {
+            return buffer;
+        }
+
+        int size() {
+            return size;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, size);
+        }
+
+        private void ensure(int extra) {
+            if (size + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + extra));
+            }
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package me.zcraft.tc.config.sync;
+
+import me.zcraft.tc.TritiumCommon;
+import me.zcraft.tc.config.TritiumConfig;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Client side of config sync. Applies what {@link ConfigSyncServer} sends as server values of the local config,
+ * so they are used while connected but never written to the client's config file.
+ */
+public final class ConfigSyncClient {
+    private final TritiumConfig config;
+    private final SyncSchema schema;
+    private final SyncCodec codec;
+    private boolean synced;
+    private long generation;
+
+    public ConfigSyncClient(TritiumConfig config) {
+        this(config, new BinarySyncCodec());
+    }
+
+    public ConfigSyncClient(TritiumConfig config, SyncCodec codec) {
+        this.config = config;
+        this.schema = SyncSchema.forClass(config.getConfigClass());
+        this.codec = codec;
+    }
+
+    /**
+     * Applies one payload from the server. Payloads of another mod or config version, deltas without a snapshot
+     * before them and stale deltas are ignored.
+     *
+     * @return whether the payload was applied
+     */
+    public synchronized boolean receive(byte[] bytes) {
+        SyncPayload payload;
+        try {
+            payload = codec.decode(bytes);
+        } catch (IOException e) {
+            TritiumCommon.LOG.warn("Ignoring invalid config sync payload for mod {}: {}", config.getModId(), e.getMessage());
+            return false;
+        }
+
+        if (!config.getModId().equals(payload.getModId())) {
+            return false;
+        }
+        if (payload.getSchemaHash() != schema.getHash()) {
+            TritiumCommon.LOG.warn("Server config of mod {} does not match the local one, not syncing it", config.getModId());
+            return false;
+        }
+        boolean snapshot = payload.getKind() == SyncPayload.Kind.SNAPSHOT;
+        if (!snapshot && (!synced || payload.getGeneration() <= generation)) {
+            TritiumCommon.LOG.debug("Ignoring out of order config sync delta for mod {}", config.getModId());
+            return false;
+        }
+
+        int[] slots = payload.getSlots();
+        Object[] values = payload.getValues();
+        Map<String, Object> received = new HashMap<>(slots.length * 2);
+        for (int i = 0; i < slots.length; i++) {
+            if (slots[i] >= schema.size()) {
+                TritiumCommon.LOG.warn("Ignoring config sync payload for mod {} with unknown slot {}", config.getModId(), slots[i]);
+                return false;
+            }
+            received.put(schema.pathOf(slots[i]), toType(values[i], schema.typeOf(slots[i])));
+        }
+
+        try {
+            config.applyServerValues(received);
+        } catch (RuntimeException e) {
+            TritiumCommon.LOG.error("Failed to apply server config of mod {}", config.getModId(), e);
+            return false;
+        }
+        synced = true;
+        generation = payload.getGeneration();
+        return true;
+    }
+
+    /**
+     * Goes back to the local values, e.g. when leaving the server.
+     */
+    public synchronized void disconnect() {
+        synced = false;
+        generation = 0;
+        config.clearServerValues();
+    }
+
+    public synchronized boolean isSynced() {
+        return synced;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Object toType(Object value, Class<?> type) {
+        if (type.isEnum() && value instanceof String) {
+            try {
+                return Enum.valueOf((Class<Enum>) type, (String) value);
+            } catch (IllegalArgumentException e) {
+                // Left to the config's own conversion
+            }
+        }
+        return value;
+    }
+}
@@ -0,0 +1,113 @@
+package me.zcraft.tc.config.sync;
+
+import me.zcraft.tc.TritiumCommon;
+import me.zcraft.tc.config.ConfigSnapshot;
+import me.zcraft.tc.config.TritiumConfig;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.function.BiConsumer;
+
+/**
+ * Server side of config sync. A client gets all synced values when it {@link #connect connects}; after that every
+ * reload or edit of the config sends only the slots that changed, encoded once for all clients.
+ */
+public final class ConfigSyncServer implements AutoCloseable {
+    private final TritiumConfig config;
+    private final SyncSchema schema;
+    private final SyncCodec codec;
+    private final Set<SyncChannel> channels = new CopyOnWriteArraySet<>();
+    private final BiConsumer<ConfigSnapshot, Set<String>> listener = this::onChange;
+
+    public ConfigSyncServer(TritiumConfig config) {
+        this(config, new BinarySyncCodec());
+    }
+
+    public ConfigSyncServer(TritiumConfig config, SyncCodec codec) {
+        this.config = config;
+        this.schema = SyncSchema.forClass(config.getConfigClass());
+        this.codec = codec;
+        // Loads a lazy config now, so connect() never has to wait for the config lock
+        config.snapshot();
+        config.addChangeListener(listener);
+    }
+
+    /**
+     * Sends the current values to a client that just logged in and keeps it up to date from then on.
+     */
+    public synchronized void connect(SyncChannel channel) {
+        ConfigSnapshot current = config.snapshot();
+        int[] slots = new int[schema.size()];
+        Object[] values = new Object[schema.size()];
+        for (int slot = 0; slot < slots.length; slot++) {
+            slots[slot] = slot;
+            values[slot] = current.get(schema.pathOf(slot));
+        }
+        byte[] payload = codec.encode(new SyncPayload(SyncPayload.Kind.SNAPSHOT, config.getModId(), schema.getHash(),
+                current.getGeneration(), slots, values));
+        if (send(channel, payload)) {
+            channels.add(channel);
+        }
+    }
+
+    public void disconnect(SyncChannel channel) {
+        channels.remove(channel);
+    }
+
+    public int getConnectedCount() {
+        return channels.size();
+    }
+
+    /**
+     * Runs under the config lock, so deltas go out in snapshot order. A change published while a client connects
+     * waits for connect() and may reach that client a second time, which is harmless.
+     */
+    private synchronized void onChange(ConfigSnapshot snapshot, Set<String> changed) {
+        if (channels.isEmpty()) return;
+
+        int[] slots = new int[changed.size()];
+        int count = 0;
+        for (String path : changed) {
+            int slot = schema.slotOf(path);
+            if (slot >= 0) {
+                slots[count++] = slot;
+            }
+        }
+        if (count == 0) return;
+
+        slots = Arrays.copyOf(slots, count);
+        Arrays.sort(slots);
+        Object[] values = new Object[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = snapshot.get(schema.pathOf(slots[i]));
+        }
+        byte[] payload = codec.encode(new SyncPayload(SyncPayload.Kind.DELTA, config.getModId(), schema.getHash(),
+                snapshot.getGeneration(), slots, values));
+        for (SyncChannel channel : channels) {
+            if (!send(channel, payload)) {
+                channels.remove(channel);
+            }
+        }
+        TritiumCommon.LOG.debug("Synced {} changed config values of mod {} to {} clients", count, config.getModId(), channels.size());
+    }
+
+    private boolean send(SyncChannel channel, byte[] payload) {
+        try {
+            channel.send(payload);
+            return true;
+        } catch (RuntimeException e) {
+            TritiumCommon.LOG.warn("Failed to send config sync for mod {}, dropping the client", config.getModId(), e);
+            return false;
+        }
+    }
+
+    /**
+     * Stops sending updates. Clients keep the values they received.
+     */
+    @Override
+    public void close() {
+        config.removeChangeListener(listener);
+        channels.clear();
+    }
+}
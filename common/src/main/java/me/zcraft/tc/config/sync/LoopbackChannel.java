@@ -0,0 +1,33 @@
+package me.zcraft.tc.config.sync;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Hands every payload straight to a receiver in the same process, e.g. {@link ConfigSyncClient#receive}. Used for
+ * tests and benchmarks; counts what was sent.
+ */
+public final class LoopbackChannel implements SyncChannel {
+    private final Consumer<byte[]> receiver;
+    private final AtomicLong payloads = new AtomicLong();
+    private final AtomicLong bytes = new AtomicLong();
+
+    public LoopbackChannel(Consumer<byte[]> receiver) {
+        this.receiver = receiver;
+    }
+
+    @Override
+    public void send(byte[] payload) {
+        payloads.incrementAndGet();
+        bytes.addAndGet(payload.length);
+        receiver.accept(payload.clone());
+    }
+
+    public long getSentPayloads() {
+        return payloads.get();
+    }
+
+    public long getSentBytes() {
+        return bytes.get();
+    }
+}
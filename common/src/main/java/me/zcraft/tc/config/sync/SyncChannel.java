@@ -0,0 +1,13 @@
+package me.zcraft.tc.config.sync;
+
+/**
+ * The connection to one client. Loader code implements it on top of its custom payload packets;
+ * {@link LoopbackChannel} delivers within the same process.
+ */
+@FunctionalInterface
+public interface SyncChannel {
+    /**
+     * Sends an encoded payload. Called with the config lock held, so it should only queue the bytes.
+     */
+    void send(byte[] payload);
+}
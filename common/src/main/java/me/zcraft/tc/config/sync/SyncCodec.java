@@ -0,0 +1,15 @@
+package me.zcraft.tc.config.sync;
+
+import java.io.IOException;
+
+/**
+ * Turns {@link SyncPayload}s into the bytes a {@link SyncChannel} carries. {@link BinarySyncCodec} is the default.
+ */
+public interface SyncCodec {
+    byte[] encode(SyncPayload payload);
+
+    /**
+     * @throws IOException if {@code bytes} is not a payload of this codec
+     */
+    SyncPayload decode(byte[] bytes) throws IOException;
+}
@@ -0,0 +1,63 @@
+package me.zcraft.tc.config.sync;
+
+/**
+ * One message from a server to a client: all synced values of a config, or the ones that changed since the
+ * previous message. Values are booleans, numbers, strings and string lists; enums travel as their name.
+ */
+public final class SyncPayload {
+    public enum Kind {
+        SNAPSHOT, DELTA
+    }
+
+    private final Kind kind;
+    private final String modId;
+    private final long schemaHash;
+    private final long generation;
+    private final int[] slots;
+    private final Object[] values;
+
+    public SyncPayload(Kind kind, String modId, long schemaHash, long generation, int[] slots, Object[] values) {
+        if (slots.length != values.length) {
+            throw new IllegalArgumentException("Got " + slots.length + " slots but " + values.length + " values");
+        }
+        this.kind = kind;
+        this.modId = modId;
+        this.schemaHash = schemaHash;
+        this.generation = generation;
+        this.slots = slots;
+        this.values = values;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public String getModId() {
+        return modId;
+    }
+
+    /**
+     * {@link SyncSchema#getHash()} of the sending server.
+     */
+    public long getSchemaHash() {
+        return schemaHash;
+    }
+
+    /**
+     * Generation of the server snapshot the values were taken from.
+     */
+    public long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Slots in ascending order; for a snapshot every slot of the schema.
+     */
+    public int[] getSlots() {
+        return slots;
+    }
+
+    public Object[] getValues() {
+        return values;
+    }
+}
@@ -0,0 +1,103 @@
+package me.zcraft.tc.config.sync;
+
+import me.zcraft.tc.config.ContentHash;
+import me.zcraft.tc.config.binder.BoundMember;
+import me.zcraft.tc.config.binder.BoundSection;
+import me.zcraft.tc.config.binder.ConfigBinder;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The values of a config class that a server sends to clients: every value that is not {@code @ClientOnly}, each
+ * with a fixed slot number. Slots are assigned in path order, so a server and a client with the same config class
+ * agree on them without exchanging paths; {@link #getHash()} tells whether they do.
+ */
+public final class SyncSchema {
+    private static final ClassValue<SyncSchema> SCHEMAS = new ClassValue<>() {
+        @Override
+        protected SyncSchema computeValue(Class<?> configClass) {
+            return of(ConfigBinder.forClass(configClass).bind(false));
+        }
+    };
+
+    private final String[] paths;
+    private final Class<?>[] types;
+    private final Map<String, Integer> slots;
+    private final long hash;
+
+    private SyncSchema(String[] paths, Class<?>[] types, long hash) {
+        this.paths = paths;
+        this.types = types;
+        this.hash = hash;
+        this.slots = new HashMap<>(paths.length * 2);
+        for (int slot = 0; slot < paths.length; slot++) {
+            slots.put(paths[slot], slot);
+        }
+    }
+
+    public static SyncSchema forClass(Class<?> configClass) {
+        return SCHEMAS.get(configClass);
+    }
+
+    /**
+     * @param server the member tree bound without client-only members
+     */
+    static SyncSchema of(BoundSection server) {
+        Map<String, Class<?>> values = new TreeMap<>();
+        collect(server, values);
+
+        String[] paths = values.keySet().toArray(new String[0]);
+        Class<?>[] types = values.values().toArray(new Class<?>[0]);
+        StringBuilder sb = new StringBuilder(server.getType().getName()).append('\n');
+        for (int slot = 0; slot < paths.length; slot++) {
+            sb.append(paths[slot]).append(':').append(types[slot].getName()).append('\n');
+        }
+        return new SyncSchema(paths, types, ContentHash.of(sb));
+    }
+
+    private static void collect(BoundSection section, Map<String, Class<?>> values) {
+        for (BoundMember member : section.getMembers()) {
+            if (member instanceof BoundSection) {
+                collect((BoundSection) member, values);
+            } else if (isSyncable(member.getType())) {
+                values.put(member.getPath(), member.getType());
+            }
+        }
+    }
+
+    private static boolean isSyncable(Class<?> type) {
+        return type.isPrimitive() || type == Boolean.class || type == Integer.class || type == Long.class
+                || type == Double.class || type == String.class || type.isEnum() || type == List.class;
+    }
+
+    /**
+     * Hash of the slot layout, sent with every payload so a client with another version of the config class
+     * ignores it instead of applying values to the wrong paths.
+     */
+    public long getHash() {
+        return hash;
+    }
+
+    public int size() {
+        return paths.length;
+    }
+
+    /**
+     * @return the slot of {@code path}, or -1 if it is not synced
+     */
+    public int slotOf(String path) {
+        Integer slot = slots.get(path);
+        return slot != null ? slot : -1;
+    }
+
+    public String pathOf(int slot) {
+        return paths[slot];
+    }
+
+    public Class<?> typeOf(int slot) {
+        return types[slot];
+    }
+}
@@ -4,78 +4,129 @@ package me.zcraft.tc.config.watcher;
 import me.zcraft.tc.TritiumCommon;
 
 import java.io.IOException;
-import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.WatchService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
-
-import static java.nio.file.StandardWatchEventKinds.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+/**
+ * Runs a callback when the config file is changed by someone else. Change events come from the shared
+ * {@link ConfigWatchService}; a burst of events is debounced until the file's size and modification time stop
+ * changing, and changes announced with {@link #markSelfWrite()} are ignored.
+ */
 public class ConfigFileWatcher {
+    private static final long DEBOUNCE_MS = 100;
+
     private final Path configPath;
     private final Runnable changeCallback;
-    private WatchService watchService;
-    private ScheduledExecutorService executor;
-    private long lastModified;
+    private final Runnable eventListener;
+    private final AtomicBoolean settling = new AtomicBoolean(false);
+    private volatile boolean running;
+    // size/mtime of the content the config already knows about
+    private volatile FileStamp lastSeen;
 
     public ConfigFileWatcher(Path configPath, Runnable changeCallback) {
+        this(configPath, changeCallback, () -> {});
+    }
+
+    /**
+     * @param eventListener called for every raw file event before debouncing, e.g. to count them
+     */
+    public ConfigFileWatcher(Path configPath, Runnable changeCallback, Runnable eventListener) {
         this.configPath = configPath;
         this.changeCallback = changeCallback;
-        this.lastModified = getLastModified();
+        this.eventListener = eventListener;
+        this.lastSeen = FileStamp.read(configPath);
     }
 
     public void start() {
         try {
-            watchService = FileSystems.getDefault().newWatchService();
-            Path parentDir = configPath.getParent();
-            parentDir.register(watchService, ENTRY_MODIFY, ENTRY_CREATE, ENTRY_DELETE);
-
-            executor = Executors.newSingleThreadScheduledExecutor(r -> {
-                Thread t = new Thread(r, "Tritium-Config-Watcher");
-                t.setDaemon(true);
-                return t;
-            });
-
-            executor.scheduleWithFixedDelay(this::checkChanges, 2, 2, TimeUnit.SECONDS);
+            running = true;
+            ConfigWatchService.getInstance().register(this);
             TritiumCommon.LOG.debug("Started config file watcher for: {}", configPath);
         } catch (IOException e) {
+            running = false;
             TritiumCommon.LOG.error("Failed to start config file watcher", e);
         }
     }
 
     public void stop() {
-        if (executor != null) {
-            executor.shutdown();
-        }
-        if (watchService != null) {
-            try {
-                watchService.close();
-            } catch (IOException e) {
-                TritiumCommon.LOG.error("Error closing watch service", e);
-            }
+        running = false;
+        ConfigWatchService.getInstance().unregister(this);
+    }
+
+    /**
+     * Records the file as written by Tritium itself, so the events caused by that write don't trigger a reload.
+     */
+    public void markSelfWrite() {
+        lastSeen = FileStamp.read(configPath);
+    }
+
+    Path getConfigPath() {
+        return configPath;
+    }
+
+    void onFileEvent() {
+        eventListener.run();
+        if (running && settling.compareAndSet(false, true)) {
+            ConfigWatchService.getInstance().schedule(() -> settle(FileStamp.read(configPath)), DEBOUNCE_MS);
         }
     }
 
-    private void checkChanges() {
+    private void settle(FileStamp previous) {
+        if (!running) {
+            settling.set(false);
+            return;
+        }
+
+        FileStamp current = FileStamp.read(configPath);
+        if (!current.equals(previous)) {
+            // 文件仍在写入
+            ConfigWatchService.getInstance().schedule(() -> settle(current), DEBOUNCE_MS);
+            return;
+        }
+
+        settling.set(false);
+        if (current.equals(lastSeen) || current.size < 0) {
+            return;
+        }
+        lastSeen = current;
+
         try {
-            long currentModified = getLastModified();
-            if (currentModified > lastModified) {
-                lastModified = currentModified;
-                changeCallback.run();
-            }
+            changeCallback.run();
         } catch (Exception e) {
             TritiumCommon.LOG.error("Error checking config file changes", e);
         }
     }
 
-    private long getLastModified() {
-        try {
-            return Files.getLastModifiedTime(configPath).toMillis();
-        } catch (IOException e) {
-            return 0;
+    private static final class FileStamp {
+        private final long size;
+        private final long modified;
+
+        private FileStamp(long size, long modified) {
+            this.size = size;
+            this.modified = modified;
+        }
+
+        static FileStamp read(Path path) {
+            try {
+                BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                return new FileStamp(attributes.size(), attributes.lastModifiedTime().toMillis());
+            } catch (IOException e) {
+                return new FileStamp(-1, 0);
+            }
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof FileStamp)) return false;
+            FileStamp other = (FileStamp) o;
+            return size == other.size && modified == other.modified;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(size) * 31 + Long.hashCode(modified);
         }
     }
-}
\ No newline at end of file
+}
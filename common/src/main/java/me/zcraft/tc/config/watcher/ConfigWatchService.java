@@ -0,0 +1,117 @@
+package me.zcraft.tc.config.watcher;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+/**
+ * Watches the files of all {@link ConfigFileWatcher}s with a single {@link WatchService}: one key per config
+ * directory, one thread waiting for events and one thread running the debounce checks and reload callbacks.
+ */
+final class ConfigWatchService {
+    private static final ConfigWatchService INSTANCE = new ConfigWatchService();
+
+    private final Map<Path, Map<Path, ConfigFileWatcher>> watchersByDirectory = new HashMap<>();
+    private final Map<Path, WatchKey> keys = new HashMap<>();
+    private WatchService watchService;
+    private ScheduledExecutorService scheduler;
+
+    private ConfigWatchService() {
+    }
+
+    static ConfigWatchService getInstance() {
+        return INSTANCE;
+    }
+
+    synchronized void register(ConfigFileWatcher watcher) throws IOException {
+        if (watchService == null) {
+            start();
+        }
+
+        Path file = watcher.getConfigPath().toAbsolutePath().normalize();
+        Path directory = file.getParent();
+        if (!keys.containsKey(directory)) {
+            keys.put(directory, directory.register(watchService, ENTRY_CREATE, ENTRY_MODIFY));
+        }
+        watchersByDirectory.computeIfAbsent(directory, d -> new HashMap<>()).put(file.getFileName(), watcher);
+    }
+
+    synchronized void unregister(ConfigFileWatcher watcher) {
+        Path file = watcher.getConfigPath().toAbsolutePath().normalize();
+        Path directory = file.getParent();
+        Map<Path, ConfigFileWatcher> watchers = watchersByDirectory.get(directory);
+        if (watchers == null || !watchers.remove(file.getFileName(), watcher)) return;
+
+        if (watchers.isEmpty()) {
+            watchersByDirectory.remove(directory);
+            WatchKey key = keys.remove(directory);
+            if (key != null) {
+                key.cancel();
+            }
+        }
+    }
+
+    void schedule(Runnable task, long delayMs) {
+        scheduler.schedule(task, delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void start() throws IOException {
+        watchService = FileSystems.getDefault().newWatchService();
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "Tritium-Config-Reloader");
+            t.setDaemon(true);
+            return t;
+        });
+
+        Thread thread = new Thread(this::pollEvents, "Tritium-Config-Watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void pollEvents() {
+        while (true) {
+            WatchKey key;
+            try {
+                key = watchService.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+
+            Path directory = (Path) key.watchable();
+            List<WatchEvent<?>> events = key.pollEvents();
+            key.reset();
+
+            for (WatchEvent<?> event : events) {
+                if (event.kind() == OVERFLOW) {
+                    // 事件丢失，检查目录下所有配置
+                    for (ConfigFileWatcher watcher : watchersIn(directory).values()) {
+                        watcher.onFileEvent();
+                    }
+                    continue;
+                }
+
+                ConfigFileWatcher watcher = watchersIn(directory).get((Path) event.context());
+                if (watcher != null) {
+                    watcher.onFileEvent();
+                }
+            }
+        }
+    }
+
+    private synchronized Map<Path, ConfigFileWatcher> watchersIn(Path directory) {
+        Map<Path, ConfigFileWatcher> watchers = watchersByDirectory.get(directory);
+        return watchers != null ? Map.copyOf(watchers) : Map.of();
+    }
+}
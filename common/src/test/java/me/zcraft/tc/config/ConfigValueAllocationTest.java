@@ -0,0 +1,105 @@
+package me.zcraft.tc.config;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Records allocations with JFR while reading config values in a hot loop and checks that none of them comes from
+ * the read path.
+ */
+public class ConfigValueAllocationTest {
+    private static final int WARMUP = 200_000;
+    private static final int READS = 5_000_000;
+    private static final String[] ALLOCATION_EVENTS = {
+            "jdk.ObjectAllocationSample", "jdk.ObjectAllocationInNewTLAB", "jdk.ObjectAllocationOutsideTLAB"
+    };
+
+    private final AtomicLong generation = new AtomicLong(1);
+    private final IntConfigValue intValue = new IntConfigValue(() -> 42, generation::get);
+    private final LongConfigValue longValue = new LongConfigValue(() -> 1L << 40, generation::get);
+    private final DoubleConfigValue doubleValue = new DoubleConfigValue(() -> 0.5, generation::get);
+    private final BooleanConfigValue booleanValue = new BooleanConfigValue(() -> true, generation::get);
+    private final ConfigValue<String> stringValue = new ConfigValue<>(() -> "name", generation::get);
+    private final ConfigHandle<Integer> intHandle = new ConfigHandle<>("a.count", int.class, 42);
+    private final ConfigHandle<String> stringHandle = new ConfigHandle<>("a.name", String.class, "name");
+
+    @Test
+    public void readPathDoesNotAllocate() throws Exception {
+        // Compiles the read methods before recording, so only steady-state reads are measured
+        long sum = readAll(WARMUP);
+
+        Path file = Files.createTempFile("tritium-alloc", ".jfr");
+        try (Recording recording = new Recording()) {
+            for (String event : ALLOCATION_EVENTS) {
+                recording.enable(event).withStackTrace();
+            }
+            recording.start();
+            sum += readAll(READS);
+            recording.stop();
+            recording.dump(file);
+
+            List<String> allocations = new ArrayList<>();
+            for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+                if (isReadPath(event)) {
+                    allocations.add(event.getEventType().getName() + " " + event.getClass("objectClass").getName()
+                            + " at " + event.getStackTrace().getFrames().get(0).getMethod().getName());
+                }
+            }
+            assertTrue(allocations.isEmpty(), "Read path allocated: " + allocations);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+        assertEquals((42 + (1L << 40) + 1 + 1 + 4 + 42 + 4) * (long) (WARMUP + READS), sum);
+    }
+
+    @Test
+    public void reloadRecomputesWithoutLosingTheCache() {
+        AtomicLong source = new AtomicLong(1);
+        LongConfigValue value = new LongConfigValue(source::get, generation::get);
+        assertEquals(1, value.getAsLong());
+        source.set(2);
+        assertEquals(1, value.getAsLong());
+        generation.incrementAndGet();
+        assertEquals(2, value.getAsLong());
+    }
+
+    private long readAll(int reads) {
+        long sum = 0;
+        for (int i = 0; i < reads; i++) {
+            sum += intValue.getAsInt();
+            sum += longValue.getAsLong();
+            sum += doubleValue.getAsDouble() > 0 ? 1 : 0;
+            sum += booleanValue.getAsBoolean() ? 1 : 0;
+            sum += stringValue.get().length();
+            sum += intHandle.getAsInt();
+            sum += stringHandle.get().length();
+        }
+        return sum;
+    }
+
+    /**
+     * Whether the allocation happened below one of the config value classes.
+     */
+    private static boolean isReadPath(RecordedEvent event) {
+        if (event.getStackTrace() == null) return false;
+        for (RecordedFrame frame : event.getStackTrace().getFrames()) {
+            String type = frame.getMethod().getType().getName();
+            if (type.startsWith("me.zcraft.tc.config.") && !type.endsWith("Test")) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
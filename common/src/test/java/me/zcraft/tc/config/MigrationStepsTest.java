@@ -0,0 +1,57 @@
+package me.zcraft.tc.config;
+
+import me.zcraft.tc.annotation.ConfigVersion;
+import me.zcraft.tc.annotation.SubCategory;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Declared migration steps rename keys in place, even when two keys hold equal values.
+ */
+public class MigrationStepsTest {
+    @ConfigVersion(2)
+    public static class StepsConfig {
+        @SubCategory("General")
+        public General general = new General();
+
+        public static class General {
+            public String first = "";
+            public String second = "";
+            public int count = 1;
+        }
+
+        public static MigrationSteps migrateFromV1() {
+            return MigrationSteps.builder()
+                    .rename("general.a", "general.first")
+                    .rename("general.b", "general.second")
+                    .drop("general.gone")
+                    .map("general.count", value -> String.valueOf(Integer.parseInt(value.trim()) * 2))
+                    .build();
+        }
+    }
+
+    @Test
+    public void declaredStepsRewriteInPlace() throws IOException {
+        Path file = Files.createTempFile("tritium-migration-steps", ".toml");
+        try {
+            Files.writeString(file, "[general]\n# first comment\na = \"same\"\n# second comment\nb = \"same\"\ngone = 5\ncount = 21\n");
+            ConfigParser parser = new ConfigParser(file);
+            MigrationPlan.Result result = MigrationPlan.forClass(StepsConfig.class).apply(parser);
+
+            String text = result.getDocument().getText();
+            assertTrue(text.contains("# first comment\nfirst = \"same\"\n# second comment\nsecond = \"same\"\n"), text);
+            assertFalse(text.contains("gone"), text);
+            assertTrue(text.contains("count = 42"), text);
+            assertEquals("same", parser.configValues.get("general.second"));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
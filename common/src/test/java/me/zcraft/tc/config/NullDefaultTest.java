@@ -0,0 +1,72 @@
+package me.zcraft.tc.config;
+
+import me.zcraft.tc.annotation.SubCategory;
+import me.zcraft.tc.config.sync.BinarySyncCodec;
+import me.zcraft.tc.config.sync.SyncPayload;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Config fields without a default value, e.g. a {@code List} initialized to {@code null}, register and publish
+ * like any other field.
+ */
+public class NullDefaultTest {
+    private static final String MOD_ID = "tritium_null_default_test";
+
+    public static class NullDefaultConfig {
+        @SubCategory("General")
+        public General general = new General();
+
+        public static class General {
+            public List<String> names = null;
+            public int count = 1;
+        }
+    }
+
+    @Test
+    public void nullListDefaultRegisters() throws IOException {
+        TritiumConfig config = new TritiumConfig(MOD_ID, NullDefaultConfig.class);
+        try {
+            config.register();
+            assertTrue(config.snapshot().contains("general.names"));
+            assertNull(config.snapshot().get("general.names"));
+
+            config.setValue("general.count", 2);
+            assertEquals(2, config.snapshot().get("general.count"));
+            assertNull(config.snapshot().get("general.names"));
+        } finally {
+            config.stop();
+            deleteRecursively(Paths.get("config", MOD_ID));
+        }
+    }
+
+    @Test
+    public void nullValueSyncs() throws IOException {
+        BinarySyncCodec codec = new BinarySyncCodec();
+        SyncPayload payload = new SyncPayload(SyncPayload.Kind.SNAPSHOT, MOD_ID, 1L, 1L,
+                new int[]{0, 1}, new Object[]{null, 2});
+        SyncPayload decoded = codec.decode(codec.encode(payload));
+        assertNull(decoded.getValues()[0]);
+        assertEquals(2, decoded.getValues()[1]);
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        if (!Files.exists(dir)) return;
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+}
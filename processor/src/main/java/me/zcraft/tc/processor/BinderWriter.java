@@ -0,0 +1,348 @@
+package me.zcraft.tc.processor;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import java.util.Map;
+
+/**
+ * Writes the source of one config binder. Every field becomes a straight-line {@code value(...)} call with a
+ * {@code TypedAccessor} that accesses the field directly, or a {@code section(...)} call with lambdas;
+ * {@code @ClientOnly} members are wrapped in {@code if (client)} and {@code @Range}/{@code @Validation} become
+ * validation plan rules.
+ */
+final class BinderWriter {
+    private static final String SUFFIX = "_TritiumBinder";
+    private static final String SUB_CATEGORY = ConfigBinderProcessor.SUB_CATEGORY;
+    private static final String CLIENT_ONLY = "me.zcraft.tc.annotation.ClientOnly";
+    private static final String RANGE = "me.zcraft.tc.annotation.Range";
+    private static final String VALIDATION = "me.zcraft.tc.annotation.Validation";
+    private static final String REFRESH_POLICY = "me.zcraft.tc.annotation.RefreshPolicy";
+    private static final String BUILDER = "me.zcraft.tc.config.binder.BoundSection.Builder";
+    private static final String ACCESSOR = "me.zcraft.tc.config.access.TypedAccessor";
+
+    private final Elements elements;
+    private final Types types;
+    private final TypeElement root;
+    private final String packageName;
+    private final String simpleName;
+    private final StringBuilder bind = new StringBuilder();
+    private final StringBuilder rules = new StringBuilder();
+    private int sectionCount;
+
+    BinderWriter(ProcessingEnvironment env, TypeElement root) {
+        this.elements = env.getElementUtils();
+        this.types = env.getTypeUtils();
+        this.root = root;
+        this.packageName = elements.getPackageOf(root).getQualifiedName().toString();
+        String binaryName = elements.getBinaryName(root).toString();
+        this.simpleName = binaryName.substring(packageName.isEmpty() ? 0 : packageName.length() + 1).replace('$', '_') + SUFFIX;
+    }
+
+    String getBinderName() {
+        return packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+    }
+
+    String write() throws UnsupportedConfigException {
+        if (!root.getTypeParameters().isEmpty()) {
+            throw new UnsupportedConfigException("generic config classes are not supported", root);
+        }
+        checkInstantiable(root);
+
+        String rootName = typeName(root.asType());
+        bind.append("        ").append(BUILDER).append(" s0 = me.zcraft.tc.config.binder.BoundSection.root(")
+                .append(rootName).append(".class, ").append(rootName).append("::new);\n");
+        bindFields(root, "s0", "", "        ");
+
+        StringBuilder out = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            out.append("package ").append(packageName).append(";\n\n");
+        }
+        out.append("/**\n");
+        out.append(" * Config binder for {@link ").append(rootName).append("}, generated by the Tritium config processor.\n");
+        out.append(" */\n");
+        out.append("@javax.annotation.processing.Generated(\"").append(ConfigBinderProcessor.class.getName()).append("\")\n");
+        out.append("@SuppressWarnings({\"unchecked\", \"rawtypes\"})\n");
+        out.append("public final class ").append(simpleName)
+                .append(" implements me.zcraft.tc.config.binder.ConfigBinder<").append(rootName).append("> {\n");
+
+        out.append("    @Override\n");
+        out.append("    public Class<").append(rootName).append("> getConfigClass() {\n");
+        out.append("        return ").append(rootName).append(".class;\n");
+        out.append("    }\n\n");
+
+        out.append("    @Override\n");
+        out.append("    public me.zcraft.tc.config.binder.BoundSection bind(boolean client) {\n");
+        out.append(bind);
+        out.append("        return s0.build();\n");
+        out.append("    }\n\n");
+
+        out.append("    @Override\n");
+        out.append("    public me.zcraft.tc.config.ValidationPlan getValidationPlan() {\n");
+        out.append("        return me.zcraft.tc.config.ValidationPlan.builder()\n");
+        out.append(rules);
+        appendCustomValidator(out, rootName);
+        out.append("                .build();\n");
+        out.append("    }\n");
+        out.append("}\n");
+        return out.toString();
+    }
+
+    private void bindFields(TypeElement owner, String builder, String prefix, String indent) throws UnsupportedConfigException {
+        String ownerName = typeName(owner.asType());
+
+        for (VariableElement field : ElementFilter.fieldsIn(owner.getEnclosedElements())) {
+            if (field.getModifiers().contains(Modifier.FINAL)) continue;
+            checkAccessible(field);
+
+            String name = field.getSimpleName().toString();
+            String path = prefix.isEmpty() ? name : prefix + "." + name;
+            boolean isStatic = field.getModifiers().contains(Modifier.STATIC);
+            TypeMirror type = field.asType();
+            if (type.getKind() == TypeKind.TYPEVAR) {
+                throw new UnsupportedConfigException("field " + name + " has a type variable type", field);
+            }
+
+            String target = isStatic ? ownerName : "((" + ownerName + ") o)";
+
+            boolean clientOnly = annotation(field, CLIENT_ONLY) != null;
+            String line = indent;
+            if (clientOnly) {
+                bind.append(indent).append("if (client) {\n");
+                line = indent + "    ";
+            }
+
+            AnnotationMirror subCategory = annotation(field, SUB_CATEGORY);
+            if (subCategory != null) {
+                TypeElement sectionType = sectionType(field);
+                checkInstantiable(sectionType);
+
+                String sectionName = typeName(type);
+                String getter = "o -> " + target + "." + name;
+                String setter = "(o, v) -> " + target + "." + name + " = (" + sectionName + ") v";
+                String child = "s" + (++sectionCount);
+                bind.append(line).append(BUILDER).append(' ').append(child).append(" = ").append(builder)
+                        .append(".section(").append(literal(name)).append(", ")
+                        .append(literal((String) value(subCategory, "value"))).append(", ")
+                        .append(sectionName).append(".class, ").append(isStatic).append(", ").append(sectionName).append("::new,\n")
+                        .append(line).append("        ").append(getter).append(", ").append(setter).append(");\n");
+                bindFields(sectionType, child, path, line);
+            } else {
+                AnnotationMirror refreshPolicy = annotation(field, REFRESH_POLICY);
+                long refreshInterval = refreshPolicy != null ? (Long) value(refreshPolicy, "value") : 0;
+                bind.append(line).append(builder).append(".value(").append(literal(name)).append(", ")
+                        .append(typeName(type)).append(".class, ").append(isStatic).append(", ").append(refreshInterval).append("L,\n");
+                appendAccessor(line + "        ", target, name, type, isStatic);
+                bind.append(");\n");
+                appendRules(field, path);
+            }
+
+            if (clientOnly) {
+                bind.append(indent).append("}\n");
+            }
+        }
+    }
+
+    /**
+     * Writes an anonymous {@code TypedAccessor} for a value field; int, long, double and boolean fields also get
+     * the primitive methods, so the config never boxes them on the way to the field.
+     */
+    private void appendAccessor(String indent, String target, String name, TypeMirror type, boolean isStatic) {
+        String field = target + "." + name;
+        String body = indent + "    ";
+        bind.append(indent).append("new ").append(ACCESSOR).append("(").append(typeName(type)).append(".class, ")
+                .append(isStatic).append(", ").append(literal(name)).append(") {\n");
+        bind.append(body).append("@Override public Object get(Object o) { return ").append(field).append("; }\n");
+        bind.append(body).append("@Override public void set(Object o, Object v) { ").append(field)
+                .append(" = (").append(boxedName(type)).append(") v; }\n");
+
+        String suffix = switch (type.getKind()) {
+            case INT -> "Int";
+            case LONG -> "Long";
+            case DOUBLE -> "Double";
+            case BOOLEAN -> "Boolean";
+            default -> null;
+        };
+        if (suffix != null) {
+            String primitive = type.toString();
+            bind.append(body).append("@Override public ").append(primitive).append(" get").append(suffix)
+                    .append("(Object o) { return ").append(field).append("; }\n");
+            bind.append(body).append("@Override public void set").append(suffix).append("(Object o, ").append(primitive)
+                    .append(" v) { ").append(field).append(" = v; }\n");
+        }
+        bind.append(indent).append("}");
+    }
+
+    private void appendRules(VariableElement field, String path) {
+        AnnotationMirror range = annotation(field, RANGE);
+        if (range != null) {
+            rules.append("                .range(").append(literal(path)).append(", ")
+                    .append(doubleLiteral((Double) value(range, "min"))).append(", ")
+                    .append(doubleLiteral((Double) value(range, "max"))).append(")\n");
+        }
+
+        AnnotationMirror validation = annotation(field, VALIDATION);
+        if (validation != null) {
+            rules.append("                .validation(").append(literal(path)).append(", ")
+                    .append(literal((String) value(validation, "value"))).append(")\n");
+        }
+    }
+
+    private void appendCustomValidator(StringBuilder out, String rootName) {
+        for (ExecutableElement method : ElementFilter.methodsIn(elements.getAllMembers(root))) {
+            if (!method.getSimpleName().contentEquals("validateConfig") || !method.getParameters().isEmpty()
+                    || !method.getModifiers().contains(Modifier.PUBLIC)) {
+                continue;
+            }
+
+            // Same lookup as ValidationPlan.compile: a static validateConfig() is called without the root
+            String call = method.getModifiers().contains(Modifier.STATIC)
+                    ? rootName + ".validateConfig()"
+                    : "((" + rootName + ") root).validateConfig()";
+            if (method.getThrownTypes().isEmpty()) {
+                out.append("                .custom(root -> ").append(call).append(")\n");
+            } else {
+                out.append("                .custom(root -> {\n");
+                out.append("                    try {\n");
+                out.append("                        ").append(call).append(";\n");
+                out.append("                    } catch (Exception e) {\n");
+                out.append("                        throw e instanceof RuntimeException ? (RuntimeException) e : new RuntimeException(e.getMessage(), e);\n");
+                out.append("                    }\n");
+                out.append("                })\n");
+            }
+            return;
+        }
+    }
+
+    private TypeElement sectionType(VariableElement field) throws UnsupportedConfigException {
+        if (field.asType().getKind() != TypeKind.DECLARED) {
+            throw new UnsupportedConfigException("@SubCategory field " + field.getSimpleName() + " is not a class type", field);
+        }
+        return (TypeElement) types.asElement(field.asType());
+    }
+
+    private void checkAccessible(VariableElement field) throws UnsupportedConfigException {
+        if (field.getModifiers().contains(Modifier.PRIVATE)) {
+            throw new UnsupportedConfigException("field " + field.getSimpleName() + " is private", field);
+        }
+        if (!field.getModifiers().contains(Modifier.PUBLIC) && !inBinderPackage(field)) {
+            throw new UnsupportedConfigException("field " + field.getSimpleName() + " is not visible from " + packageName, field);
+        }
+        checkAccessible((TypeElement) field.getEnclosingElement());
+    }
+
+    private void checkAccessible(TypeElement type) throws UnsupportedConfigException {
+        for (Element element = type; element instanceof TypeElement; element = element.getEnclosingElement()) {
+            if (element.getModifiers().contains(Modifier.PRIVATE)) {
+                throw new UnsupportedConfigException(element + " is private", element);
+            }
+            if (!element.getModifiers().contains(Modifier.PUBLIC) && !inBinderPackage(element)) {
+                throw new UnsupportedConfigException(element + " is not visible from " + packageName, element);
+            }
+        }
+    }
+
+    private void checkInstantiable(TypeElement type) throws UnsupportedConfigException {
+        checkAccessible(type);
+        if (type.getKind() != ElementKind.CLASS || type.getModifiers().contains(Modifier.ABSTRACT)) {
+            throw new UnsupportedConfigException(type + " is not a concrete class", type);
+        }
+        if (type.getNestingKind() == NestingKind.MEMBER && !type.getModifiers().contains(Modifier.STATIC)) {
+            throw new UnsupportedConfigException(type + " is an inner class", type);
+        }
+
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+            if (!constructor.getParameters().isEmpty() || constructor.getModifiers().contains(Modifier.PRIVATE)) continue;
+            if (constructor.getModifiers().contains(Modifier.PUBLIC) || inBinderPackage(type)) {
+                return;
+            }
+        }
+        throw new UnsupportedConfigException(type + " has no accessible no-arg constructor", type);
+    }
+
+    private boolean inBinderPackage(Element element) {
+        return elements.getPackageOf(element).getQualifiedName().contentEquals(packageName);
+    }
+
+    private String typeName(TypeMirror type) {
+        return types.erasure(type).toString();
+    }
+
+    private String boxedName(TypeMirror type) {
+        if (type.getKind().isPrimitive()) {
+            return types.boxedClass((PrimitiveType) type).getQualifiedName().toString();
+        }
+        return typeName(type);
+    }
+
+    static AnnotationMirror annotation(Element element, String name) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            TypeElement type = (TypeElement) mirror.getAnnotationType().asElement();
+            if (type.getQualifiedName().contentEquals(name)) {
+                return mirror;
+            }
+        }
+        return null;
+    }
+
+    private Object value(AnnotationMirror mirror, String name) {
+        Map<? extends ExecutableElement, ? extends AnnotationValue> values = elements.getElementValuesWithDefaults(mirror);
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : values.entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals(name)) {
+                return entry.getValue().getValue();
+            }
+        }
+        return null;
+    }
+
+    private static String doubleLiteral(double value) {
+        if (Double.isNaN(value)) return "Double.NaN";
+        if (value == Double.POSITIVE_INFINITY) return "Double.POSITIVE_INFINITY";
+        if (value == Double.NEGATIVE_INFINITY) return "Double.NEGATIVE_INFINITY";
+        return Double.toString(value);
+    }
+
+    private static String literal(String value) {
+        StringBuilder sb = new StringBuilder("\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    static final class UnsupportedConfigException extends Exception {
+        final Element element;
+
+        UnsupportedConfigException(String message, Element element) {
+            super(message);
+            this.element = element;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package me.zcraft.tc.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Generates a {@code <ConfigClass>_TritiumBinder} for every config class, so registering it needs no reflection.
+ * Config classes are the {@code @ConfigVersion} classes and the classes with {@code @SubCategory} fields that are
+ * not themselves the type of a {@code @SubCategory} field. Classes that can't be bound with plain field access
+ * (private fields, sections without an accessible no-arg constructor, ...) are reported as a note and keep using
+ * reflection at runtime.
+ */
+@SupportedAnnotationTypes({ConfigBinderProcessor.CONFIG_VERSION, ConfigBinderProcessor.SUB_CATEGORY})
+public class ConfigBinderProcessor extends AbstractProcessor {
+    static final String CONFIG_VERSION = "me.zcraft.tc.annotation.ConfigVersion";
+    static final String SUB_CATEGORY = "me.zcraft.tc.annotation.SubCategory";
+
+    private final Set<String> generated = new HashSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        Set<TypeElement> roots = new LinkedHashSet<>();
+        Set<Element> sections = new HashSet<>();
+        for (TypeElement annotation : annotations) {
+            boolean subCategory = annotation.getQualifiedName().contentEquals(SUB_CATEGORY);
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (subCategory && element.getKind() == ElementKind.FIELD) {
+                    roots.add((TypeElement) element.getEnclosingElement());
+                    Element sectionType = processingEnv.getTypeUtils().asElement(element.asType());
+                    if (sectionType != null) {
+                        sections.add(sectionType);
+                    }
+                } else if (element.getKind() == ElementKind.CLASS) {
+                    roots.add((TypeElement) element);
+                }
+            }
+        }
+
+        for (TypeElement root : roots) {
+            if (root.getKind() != ElementKind.CLASS) continue;
+            // A section type gets bound as part of its config, unless it's a config of its own
+            if (sections.contains(root) && BinderWriter.annotation(root, CONFIG_VERSION) == null) continue;
+            if (generated.add(processingEnv.getElementUtils().getBinaryName(root).toString())) {
+                generate(root);
+            }
+        }
+        return false;
+    }
+
+    private void generate(TypeElement configClass) {
+        BinderWriter writer = new BinderWriter(processingEnv, configClass);
+        try {
+            String source = writer.write();
+            JavaFileObject file = processingEnv.getFiler().createSourceFile(writer.getBinderName(), configClass);
+            try (Writer out = file.openWriter()) {
+                out.write(source);
+            }
+        } catch (BinderWriter.UnsupportedConfigException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+                    "No binder generated, " + configClass + " will be bound by reflection: " + e.getMessage(), e.element);
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Failed to write config binder: " + e.getMessage(), configClass);
+        }
+    }
+}